@@ -0,0 +1,29 @@
+package com.project.ecommerceapp.bench;
+
+import com.project.ecommerceapp.EcommerceAppApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/*
+    Starts the application without the web layer, on the in-memory H2 database of the test configuration.
+    Extra properties are passed as command line arguments, e.g. "--inventory.hot.enabled=true".
+*/
+final class BenchmarkContext {
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        SpringApplication application = new SpringApplication(EcommerceAppApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+                "spring.jpa.show-sql", "false",
+                "logging.level.root", "warn",
+                "image.storage.root", "target/bench-data/images",
+                "image.variant.cache-dir", "target/bench-data/variants",
+                "inventory.hot.journal-dir", "target/bench-data/inventory-journal"));
+        return application.run(properties);
+    }
+}
@@ -0,0 +1,69 @@
+package com.project.ecommerceapp.bench;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.request.AddProductRequest;
+import com.project.ecommerceapp.service.category.CategoryCache;
+import com.project.ecommerceapp.service.product.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/*
+    The category lookup of ProductServiceImpl.addProduct on the in-memory database:
+    the cached lookup, the repository query it replaces, and the whole addProduct call.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryLookupBenchmark {
+    private static final String CATEGORY = "bench-category";
+
+    private ConfigurableApplicationContext context;
+    private CategoryCache categoryCache;
+    private CategoryRepository categoryRepository;
+    private ProductService productService;
+    private AddProductRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        categoryCache = context.getBean(CategoryCache.class);
+        categoryRepository = context.getBean(CategoryRepository.class);
+        productService = context.getBean(ProductService.class);
+        categoryRepository.save(new Category(CATEGORY));
+        request = new AddProductRequest();
+        request.setName("bench");
+        request.setBrand("bench");
+        request.setPrice(BigDecimal.ONE);
+        request.setInventory(1);
+        request.setDescription("bench product");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Category cachedLookup() {
+        return categoryCache.getByName(CATEGORY);
+    }
+
+    @Benchmark
+    public Category repositoryLookup() {
+        return categoryRepository.findByName(CATEGORY);
+    }
+
+    @Benchmark
+    public Product addProduct() {
+        request.setCategory(new Category(CATEGORY));
+        return productService.addProduct(request);
+    }
+}
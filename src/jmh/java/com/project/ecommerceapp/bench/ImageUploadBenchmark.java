@@ -0,0 +1,79 @@
+package com.project.ecommerceapp.bench;
+
+import com.project.ecommerceapp.dto.ImageDto;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.image.ImageService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+    ImageServiceImpl.saveImages with in-memory multipart files: hashing into ImageStorage and the batched row inserts.
+    The same pictures are uploaded on every invocation, so after the first one the storage only verifies the content
+    is already there and the disk does not fill up during the run.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageUploadBenchmark {
+    @Param({"1", "8"})
+    private int files;
+
+    private ConfigurableApplicationContext context;
+    private ImageService imageService;
+    private Long productId;
+    private List<MultipartFile> uploads;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        imageService = context.getBean(ImageService.class);
+        Category category = context.getBean(CategoryRepository.class).save(new Category("bench-images"));
+        productId = context.getBean(ProductRepository.class)
+                .save(new Product("bench", "bench", BigDecimal.ONE, 1, "bench", category)).getId();
+        uploads = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < files; i++) {
+            uploads.add(new MockMultipartFile("files", "image-" + i + ".png", "image/png", png(random)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ImageDto> saveImages() {
+        return imageService.saveImages(productId, uploads);
+    }
+
+    private static byte[] png(Random random) throws IOException {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.ecommerceapp.bench;
+
+import com.project.ecommerceapp.dto.InventoryResult;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.InventoryItem;
+import com.project.ecommerceapp.request.InventoryRequest;
+import com.project.ecommerceapp.service.inventory.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Reservations of one unit of the same product from 8 threads, the flash sale case:
+    "sql" is one conditional update per reservation, all threads queue on the product row,
+    "hot" grants them on the striped in-memory counter of HotInventory and writes behind once per second.
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryReservationBenchmark {
+    @Param({"sql", "hot"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private InventoryRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("--inventory.hot.enabled=true", "--inventory.hot.detect-threshold=0");
+        inventoryService = context.getBean(InventoryService.class);
+        Category category = context.getBean(CategoryRepository.class).save(new Category("bench-inventory"));
+        Product product = context.getBean(ProductRepository.class)
+                .save(new Product("bench", "bench", BigDecimal.ONE, 1_000_000_000, "bench product", category));
+        if (mode.equals("hot")) {
+            inventoryService.promote(product.getId());
+        }
+        request = new InventoryRequest();
+        request.setItems(List.of(new InventoryItem(product.getId(), 1)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InventoryResult reserve() {
+        return inventoryService.reserve(request);
+    }
+}
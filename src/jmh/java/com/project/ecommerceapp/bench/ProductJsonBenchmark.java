@@ -0,0 +1,48 @@
+package com.project.ecommerceapp.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerceapp.dto.ProductDto;
+import com.project.ecommerceapp.mapper.ProductMapper;
+import com.project.ecommerceapp.response.ApiResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Jackson serialization of the ApiResponse envelope around product listings, with the mapper Spring configures.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductJsonBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<ProductDto> products = ProductMapper.INSTANCE.productListToProductDto(Products.create(size));
+        response = new ApiResponse("Data:", products);
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    // streamed like the message converter does, without holding the whole document
+    @Benchmark
+    public void writeToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+}
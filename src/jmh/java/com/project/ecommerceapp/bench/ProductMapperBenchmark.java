@@ -0,0 +1,35 @@
+package com.project.ecommerceapp.bench;
+
+import com.project.ecommerceapp.dto.ProductDto;
+import com.project.ecommerceapp.mapper.ProductMapper;
+import com.project.ecommerceapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Entity to dto mapping of product listings, images included.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = Products.create(size);
+    }
+
+    @Benchmark
+    public List<ProductDto> productListToProductDto() {
+        return ProductMapper.INSTANCE.productListToProductDto(products);
+    }
+}
@@ -0,0 +1,44 @@
+package com.project.ecommerceapp.bench;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    Detached products shaped like the catalog: 20 categories, 50 brands, two images each.
+*/
+final class Products {
+    private Products() {
+    }
+
+    static List<Product> create(int count) {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Category category = new Category("category-" + i);
+            category.setId((long) i + 1);
+            categories.add(category);
+        }
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("product " + i, "brand-" + (i % 50), BigDecimal.valueOf(1000 + i, 2), i % 30,
+                    "description of product " + i, categories.get(i % categories.size()));
+            product.setId((long) i + 1);
+            List<Image> images = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                Image image = new Image();
+                image.setId((long) i * 2 + j + 1);
+                image.setFileName("image-" + j + ".jpg");
+                image.setFileType("image/jpeg");
+                image.setProduct(product);
+                images.add(image);
+            }
+            product.setImages(images);
+            products.add(product);
+        }
+        return products;
+    }
+}
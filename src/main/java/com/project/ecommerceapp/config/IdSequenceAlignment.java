@@ -0,0 +1,65 @@
+package com.project.ecommerceapp.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/*
+    Product, Category and Image ids used to be IDENTITY columns and come from pooled sequences (allocation 50) now.
+    On a database created before that, ddl-auto=update creates the sequences at 1 next to tables that already hold
+    rows, and the first insert fails on a duplicate id. On startup every sequence behind its table's max(id) is
+    restarted past it, once the schema is up and before any request is served. A sequence that is already ahead is
+    left alone, so this is a no-op on every later start.
+*/
+@Slf4j
+@Component
+public class IdSequenceAlignment {
+    static final int ALLOCATION_SIZE = 50;
+    // sequence -> table, the ids of these tables predate the sequences
+    static final Map<String, String> SEQUENCES = Map.of(
+            "product_seq", "product",
+            "category_seq", "category",
+            "image_seq", "image");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    // the EntityManagerFactory is only taken to run after Hibernate created or updated the schema
+    public IdSequenceAlignment(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void alignAll() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    /*
+        - Moves the sequence past the highest id of the table, if it is behind it.
+        - Takes one value from the sequence to learn where it is, the pooled ids of that block are skipped.
+        - Returns true when the sequence was restarted.
+    */
+    public boolean align(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return false;
+        }
+        Long current = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (current != null && current >= maxId) {
+            return false;
+        }
+        // the pooled optimizer hands out the ALLOCATION_SIZE ids up to the value it reads, maxId + 1 comes first
+        long restart = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restart);
+        log.info("Moved sequence {} from {} to {}, past the existing ids of {}", sequence, current, restart, table);
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.ecommerceapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+    Optional read replica, enabled by setting spring.datasource.replica.url.
+    Replaces Boot's single pool with two Hikari pools, "primary" (spring.datasource.*, spring.datasource.hikari.*)
+    and "replica" (spring.datasource.replica.*, spring.datasource.replica.hikari.*), both reported per pool in the
+    hikaricp.connections.* metrics. The application uses one DataSource that routes read-only transactions to the
+    replica, see ReadWriteRoutingDataSource and ReadYourWritesFilter.
+    Without the property none of this is created and Boot configures the single pool as before.
+*/
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.datasource.replica.url")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    // username and password default to the primary's, the replica is normally the same database
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(Environment environment, DataSourceProperties primary) {
+        DataSourceProperties properties = Binder.get(environment)
+                .bindOrCreate("spring.datasource.replica", DataSourceProperties.class);
+        if (properties.getUsername() == null) {
+            properties.setUsername(primary.determineUsername());
+            properties.setPassword(primary.determinePassword());
+        }
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(@Value("${spring.datasource.replica.read-your-writes:PT5S}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+
+    // Spring holds a session's connection until the request ends (open-in-view), routing is decided per connection:
+    // released after each transaction instead, so a write following a read in one request gets a primary connection
+    @Bean
+    HibernatePropertiesCustomizer connectionPerTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.ecommerceapp.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+    Sends read-only transactions to the replica and everything else to the primary, see ReadWriteRoutingConfig.
+    The decision needs the transaction's read-only flag, which Spring sets after the connection was requested:
+    this DataSource therefore sits behind a LazyConnectionDataSourceProxy, which asks for the real connection at the
+    first statement. Work that must see the latest commit pins its thread to the primary, whether or not a replica
+    is configured: the pin is a thread-local flag and costs nothing without one.
+*/
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /*
+        - Pins the current thread to the primary until restore is called.
+        - Returns whether it was pinned before, to be handed to restore.
+    */
+    public static boolean pin() {
+        boolean previous = isPinned();
+        PINNED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (previous) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    // runs action with the thread pinned to the primary
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = pin();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPinned() ? REPLICA : PRIMARY;
+    }
+}
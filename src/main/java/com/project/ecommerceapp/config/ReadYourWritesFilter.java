@@ -0,0 +1,135 @@
+package com.project.ecommerceapp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/*
+    Keeps a client on the primary for a while after it wrote, so it reads its own change even while the replica lags.
+    Every request with an unsafe method marks the client with a cookie holding the end of that window, requests
+    carrying an unexpired mark are pinned to the primary (ReadWriteRoutingDataSource.pin). The window starts when
+    the response does, after the write committed, so a slow write does not use up the window before the client
+    even has its answer. The cookie only ever moves reads to the primary, a forged one costs replica capacity and
+    nothing else.
+*/
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String COOKIE = "primary-until";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean writes = !isSafe(request.getMethod());
+        if (!writes && !pinnedUntilAfter(request, System.currentTimeMillis())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        PinningResponse pinning = writes && !window.isZero() ? new PinningResponse(response, window) : null;
+        boolean previous = ReadWriteRoutingDataSource.pin();
+        try {
+            chain.doFilter(request, pinning != null ? pinning : response);
+        } finally {
+            ReadWriteRoutingDataSource.restore(previous);
+        }
+        if (pinning != null) {
+            pinning.stamp();
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static boolean pinnedUntilAfter(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+        Sets the cookie right before the response commits: when the body is first written, on an error or redirect,
+        or after the chain for a response without a body. By then the transaction of the write has committed.
+    */
+    private static final class PinningResponse extends HttpServletResponseWrapper {
+        private final Duration window;
+        private boolean stamped;
+
+        PinningResponse(HttpServletResponse response, Duration window) {
+            super(response);
+            this.window = window;
+        }
+
+        void stamp() {
+            if (stamped || isCommitted()) {
+                return;
+            }
+            stamped = true;
+            Cookie cookie = new Cookie(COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            addCookie(cookie);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            stamp();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            stamp();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            stamp();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            stamp();
+            super.sendRedirect(location);
+        }
+    }
+}
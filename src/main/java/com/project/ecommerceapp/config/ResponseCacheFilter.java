@@ -0,0 +1,185 @@
+package com.project.ecommerceapp.config;
+
+import com.project.ecommerceapp.service.catalog.CachedResponse;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+    Serves the catalog listing endpoints from ResponseCache.
+    The key is the path, the sorted query parameters and the CatalogVersion read before the controller runs, so a
+    response built while a write commits is stored under the old version and never served afterwards.
+    A hit writes the stored bytes as they are: no query, no entity mapping, no JSON serialization.
+    The ETag is the catalog version and the catalog.response-cache.ttl period the response was built in, the same on
+    every instance. A poll with If-None-Match holding the current tag gets a 304 before the cache is even looked up,
+    also once the entry expired or was evicted. The period bounds how old the listed stock of a 304 can be, as the
+    ttl does for cached bodies.
+    Only 200 JSON responses are stored, errors and other content always go through the controller.
+    With a read replica a miss is built from the replica like any other read. Until the version is older than the
+    replication lag (spring.datasource.replica.read-your-writes) the replica may still show the state before it, so
+    such a response is passed through without being stored; one built on the primary (a pinned request) is stored.
+*/
+@Component
+@ConditionalOnProperty(name = "catalog.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache responseCache;
+    private final CatalogVersion catalogVersion;
+    private final Duration replicaLag;
+    private final long periodMillis;
+    private final Set<String> paths;
+
+    public ResponseCacheFilter(ResponseCache responseCache, CatalogVersion catalogVersion,
+                               @Value("${api.prefix}") String apiPrefix,
+                               @Value("${spring.datasource.replica.url:}") String replicaUrl,
+                               @Value("${spring.datasource.replica.read-your-writes:PT5S}") Duration replicaLag,
+                               @Value("${catalog.response-cache.ttl:10s}") Duration ttl) {
+        this.responseCache = responseCache;
+        this.catalogVersion = catalogVersion;
+        this.replicaLag = replicaUrl.isEmpty() ? Duration.ZERO : replicaLag;
+        this.periodMillis = Math.max(1, ttl.toMillis());
+        this.paths = Set.of(
+                apiPrefix + "/product/",
+                apiPrefix + "/product/brand",
+                apiPrefix + "/product/category-and-brand",
+                apiPrefix + "/product/brand-and-name",
+                apiPrefix + "/product/filter",
+                apiPrefix + "/category/");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long version = catalogVersion.current();
+        String etag = etag(version);
+        if (isNotModified(request, etag)) {
+            response.setHeader(CACHE_HEADER, "REVALIDATED");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        String key = key(request, version);
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            write(request, response, cached, "HIT");
+            return;
+        }
+        // a lagging replica would store the state from before the bump under the new version
+        boolean storable = ReadWriteRoutingDataSource.isPinned() || !catalogVersion.advancedWithin(replicaLag);
+        if (!storable) {
+            response.setHeader(CACHE_HEADER, "BYPASS");
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        if (!storable || !isCacheable(request, wrapper)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        CachedResponse stored = responseCache.put(key, etag, wrapper.getContentType(), wrapper.getContentAsByteArray());
+        // the buffered body is replaced by the stored encoding, a miss is served exactly like the next hit
+        wrapper.resetBuffer();
+        write(request, response, stored, "MISS");
+    }
+
+    private static boolean isCacheable(HttpServletRequest request, ContentCachingResponseWrapper response) {
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && !request.isAsyncStarted()
+                && response.getContentType() != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType()));
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached, String outcome)
+            throws IOException {
+        byte[] body = cached.getBody();
+        response.setHeader(CACHE_HEADER, outcome);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, cached.getEtag());
+        if (isNotModified(request, cached.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        if (cached.getGzip() != null && acceptsGzip(request)) {
+            body = cached.getGzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // weak: the same entity is sent identity or gzip encoded
+    private String etag(long version) {
+        return "W/\"" + version + "." + System.currentTimeMillis() / periodMillis + "\"";
+    }
+
+    // weak comparison, If-None-Match lists the tags the client holds, or "*"
+    private static boolean isNotModified(HttpServletRequest request, String etag) {
+        String opaque = etag.substring(2);
+        for (Enumeration<String> headers = request.getHeaders(HttpHeaders.IF_NONE_MATCH); headers.hasMoreElements(); ) {
+            for (String tag : headers.nextElement().split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // "gzip;q=0" explicitly refuses it, any other mention of gzip or a wildcard accepts it
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static String key(HttpServletRequest request, long version) {
+        StringBuilder key = new StringBuilder().append(version).append(' ').append(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+}
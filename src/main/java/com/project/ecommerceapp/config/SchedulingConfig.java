@@ -0,0 +1,12 @@
+package com.project.ecommerceapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+    Runs the @Scheduled jobs, the write-behind flush and the hot product detection of HotInventory.
+*/
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,56 @@
+package com.project.ecommerceapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/*
+    Extra wiring for spring.threads.virtual.enabled=true.
+    Boot already runs Tomcat requests and the application task executor (async MVC, exports) on virtual threads;
+    this caps the threads doing database work at the Hikari pool size, see BoundedDataSource.
+    CPU bound work such as image resizing stays on its own bounded platform thread pool.
+*/
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor boundedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new BoundedDataSource(hikari, hikari.getMaximumPoolSize(), Duration.ofMillis(hikari.getConnectionTimeout()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            BoundedDataSource bounded;
+            try {
+                bounded = dataSource.unwrap(BoundedDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("jdbc.permits.waiting", bounded, BoundedDataSource::getWaiting)
+                    .description("Threads waiting for a database permit")
+                    .register(registry);
+            Gauge.builder("jdbc.permits.available", bounded, BoundedDataSource::getAvailablePermits)
+                    .description("Database permits not in use")
+                    .register(registry);
+        };
+    }
+}
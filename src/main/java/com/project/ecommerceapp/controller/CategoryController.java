@@ -28,6 +28,11 @@ public class CategoryController {
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getCacheStats(){
+        return ResponseEntity.ok(new ApiResponse("Category cache", categoryService.getCacheStats()));
+    }
+
     @PostMapping("/")
     public ResponseEntity<ApiResponse> addCategory(@RequestBody Category name){
         try {
@@ -0,0 +1,28 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.dto.ChangePage;
+import com.project.ecommerceapp.response.ApiResponse;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/changes")
+public class ChangeController {
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse> getChanges(@RequestParam(required = false) Long since,
+                                                  @RequestParam(required = false) Integer limit){
+        try {
+            ChangePage changes = changeFeedService.getChanges(since, limit);
+            return ResponseEntity.ok(new ApiResponse("Changes:", changes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+}
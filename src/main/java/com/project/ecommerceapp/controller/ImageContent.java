@@ -0,0 +1,23 @@
+package com.project.ecommerceapp.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/*
+    Metadata needed to answer a download request: validators, length and type, but not the bytes.
+*/
+@Getter
+@AllArgsConstructor
+public class ImageContent {
+    private String key;
+    private long size;
+    private String contentType;
+    private String fileName;
+    private Instant lastModified;
+
+    public String getETag() {
+        return "\"" + key + "\"";
+    }
+}
@@ -0,0 +1,226 @@
+package com.project.ecommerceapp.controller;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+    Writes stored image files to the HTTP response without copying them onto the heap.
+    When Tomcat offers sendfile the file is handed to the connector and the kernel copies it to the socket,
+    otherwise the bytes go through FileChannel.transferTo.
+    It also answers conditional (ETag / Last-Modified) and Range requests, using only ImageContent metadata
+    to decide, so a 304 or 416 never touches the file.
+*/
+@Component
+public class ImageContentWriter {
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // below this size the connector copies the file anyway, see Tomcat's sendfileSize
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    private static final String CRLF = "\r\n";
+
+    private final String cacheControl;
+
+    public ImageContentWriter(@Value("${image.cache-control.max-age:1h}") Duration maxAge,
+                              @Value("${image.cache-control.public:true}") boolean cachePublic) {
+        CacheControl policy = CacheControl.maxAge(maxAge);
+        this.cacheControl = (cachePublic ? policy.cachePublic() : policy.cachePrivate()).getHeaderValue();
+    }
+
+    /*
+        - Sets the validators and caching headers, then evaluates If-None-Match / If-Modified-Since.
+        - Returns true when the response has been completed as 304 (or 412) and nothing else must be written.
+    */
+    public boolean checkNotModified(ImageContent content, HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        long lastModified = content.getLastModified() == null ? -1 : content.getLastModified().toEpochMilli();
+        return new ServletWebRequest(request, response).checkNotModified(content.getETag(), lastModified);
+    }
+
+    /*
+        - Writes the full content, a single range (206) or several ranges as multipart/byteranges (206).
+        - Overlapping and adjacent ranges are merged, ranges adding up to more than the file get the full content (200).
+        - content    : Metadata of the stored file.
+        - file       : The stored file.
+        - attachment : Whether the client should save the file instead of displaying it.
+    */
+    public void serve(ImageContent content, Path file, boolean attachment,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ContentDisposition disposition = (attachment ? ContentDisposition.attachment() : ContentDisposition.inline())
+                .filename(content.getFileName(), StandardCharsets.UTF_8)
+                .build();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+
+        List<HttpRange> ranges = requestedRanges(content, request);
+        if (ranges.isEmpty()) {
+            writeFull(content, file, request, response);
+            return;
+        }
+
+        long size = content.getSize();
+        List<long[]> bounds = new ArrayList<>(ranges.size());
+        long requested = 0;
+        try {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                bounds.add(new long[]{start, end});
+                requested += end - start + 1;
+            }
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        // "0-,0-,0-..." would stream the file once per range, more than the whole file is answered with the file
+        if (requested > size) {
+            writeFull(content, file, request, response);
+            return;
+        }
+        bounds = coalesce(bounds);
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (bounds.size() == 1) {
+            long start = bounds.get(0)[0];
+            long end = bounds.get(0)[1];
+            response.setContentType(content.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, size));
+            response.setContentLengthLong(end - start + 1);
+            write(file, start, end + 1, request, response);
+            return;
+        }
+        writeMultipart(content, file, bounds, response);
+    }
+
+    /*
+        - Writes the bytes [start, end) of file to the response body.
+        - Headers, status and content length must be set before calling this method.
+    */
+    public void write(Path file, long start, long end, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (end - start >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        transfer(file, start, end, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /*
+        - Copies the bytes [start, end) of file to out.
+    */
+    public void transfer(Path file, long start, long end, WritableByteChannel out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // Range is ignored when absent, malformed, or when If-Range no longer matches the current representation
+    private List<HttpRange> requestedRanges(ImageContent content, HttpServletRequest request) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return List.of();
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRangeMatches(ifRange, content, request)) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private boolean ifRangeMatches(String ifRange, ImageContent content, HttpServletRequest request) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(content.getETag());
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return content.getLastModified() != null && since / 1000 == content.getLastModified().getEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void writeFull(ImageContent content, Path file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(content.getContentType());
+        response.setContentLengthLong(content.getSize());
+        write(file, 0, content.getSize(), request, response);
+    }
+
+    private void writeMultipart(ImageContent content, Path file, List<long[]> bounds, HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(bounds.size());
+        long length = 0;
+        for (long[] bound : bounds) {
+            byte[] header = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + content.getContentType() + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(bound[0], bound[1], content.getSize()) + CRLF
+                    + CRLF).getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            length += header.length + bound[1] - bound[0] + 1;
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        length += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i < bounds.size(); i++) {
+            out.write(partHeaders.get(i));
+            transfer(file, bounds.get(i)[0], bounds.get(i)[1] + 1, channel);
+        }
+        out.write(closing);
+    }
+
+    // sorted by start, overlapping or adjacent ranges are sent as one part
+    private static List<long[]> coalesce(List<long[]> bounds) {
+        List<long[]> sorted = new ArrayList<>(bounds);
+        sorted.sort(Comparator.comparingLong(bound -> bound[0]));
+        List<long[]> merged = new ArrayList<>(sorted.size());
+        long[] last = null;
+        for (long[] bound : sorted) {
+            if (last != null && bound[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], bound[1]);
+            } else {
+                last = new long[]{bound[0], bound[1]};
+                merged.add(last);
+            }
+        }
+        return merged;
+    }
+
+    private static String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+}
@@ -2,29 +2,34 @@ package com.project.ecommerceapp.controller;
 
 import com.project.ecommerceapp.dto.ImageDto;
 import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.exceptions.UnsupportedImageException;
 import com.project.ecommerceapp.model.Image;
 import com.project.ecommerceapp.response.ApiResponse;
 import com.project.ecommerceapp.service.image.ImageService;
+import com.project.ecommerceapp.service.image.variant.ImageVariant;
+import com.project.ecommerceapp.service.image.variant.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.sql.SQLException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
-import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
-import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.*;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("${api.prefix}/images")
 public class ImageController {
     private final ImageService imageService;
+    private final ImageContentWriter imageContentWriter;
+    private final ImageVariantService imageVariantService;
 
     @PostMapping("/")
     public ResponseEntity<ApiResponse> saveImages(@RequestParam List<MultipartFile> files, @RequestParam Long productId){
@@ -37,39 +42,81 @@ public class ImageController {
     }
 
     @GetMapping("/download/{imageId}")
-    public ResponseEntity<Resource> downloadImage(@PathVariable Long imageId) throws SQLException {
-        Image image = imageService.getImageById(imageId);
-        ByteArrayResource resource = new ByteArrayResource(image.getImage().getBytes(1, (int) image.getImage().length()));
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(image.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "Attachment; filename=\"" +image.getFileName() + "\"")
-                .body(resource);
+    public void downloadImage(@PathVariable Long imageId, @RequestParam(defaultValue = "false") boolean attachment,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            Image image = imageService.getImageForDownload(imageId);
+            if (image.getStorageKey() == null) {
+                response.sendError(NOT_FOUND.value(), "No content for image with id: " + imageId);
+                return;
+            }
+            ImageContent content = new ImageContent(image.getStorageKey(), image.getSize(), image.getFileType(),
+                    image.getFileName(), image.getLastModified());
+            if (imageContentWriter.checkNotModified(content, request, response)) {
+                return;
+            }
+            imageContentWriter.serve(content, imageService.getImageFile(image), attachment, request, response);
+        } catch (ResourceException e) {
+            response.sendError(NOT_FOUND.value(), e.getMessage());
+        } catch (NoSuchFileException e) {
+            response.sendError(NOT_FOUND.value(), "No content for image with id: " + imageId);
+        }
+    }
+
+    @GetMapping("/{imageId}/variant")
+    public void downloadImageVariant(@PathVariable Long imageId, @RequestParam("w") int width,
+                                     @RequestParam(value = "fmt", defaultValue = "jpeg") String format,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            Image image = imageService.getImageForDownload(imageId);
+            if (image.getStorageKey() == null) {
+                response.sendError(NOT_FOUND.value(), "No content for image with id: " + imageId);
+                return;
+            }
+            String key = imageVariantService.variantKey(image.getStorageKey(), width, format);
+            String fileName = image.getFileName() + "-" + width + "." + format;
+            ImageContent content = new ImageContent(key, 0, imageVariantService.contentType(format), fileName, image.getLastModified());
+            if (imageContentWriter.checkNotModified(content, request, response)) {
+                return;
+            }
+            ImageVariant variant = imageVariantService.getVariant(image.getStorageKey(), width, format);
+            content = new ImageContent(key, variant.getSize(), variant.getContentType(), fileName, image.getLastModified());
+            imageContentWriter.serve(content, variant.getFile(), false, request, response);
+        } catch (ResourceException e) {
+            response.sendError(NOT_FOUND.value(), e.getMessage());
+        } catch (NoSuchFileException e) {
+            response.sendError(NOT_FOUND.value(), "No content for image with id: " + imageId);
+        } catch (UnsupportedImageException e) {
+            response.sendError(UNSUPPORTED_MEDIA_TYPE.value(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response.sendError(BAD_REQUEST.value(), e.getMessage());
+        } catch (RejectedExecutionException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(SERVICE_UNAVAILABLE.value(), e.getMessage());
+        }
     }
 
     @PutMapping("/{imageId}")
     public ResponseEntity<ApiResponse> updateImage(@PathVariable Long imageId, @RequestBody MultipartFile file){
         try {
-            Image image = imageService.getImageById(imageId);
-            if (image != null) {
-                imageService.updateImage(file, imageId);
-                return ResponseEntity.ok(new ApiResponse("Data updated!", null));
-            }
+            imageService.updateImage(file, imageId);
+            return ResponseEntity.ok(new ApiResponse("Data updated!", null));
         } catch (ResourceException e){
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (RuntimeException e){
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Update failed", INTERNAL_SERVER_ERROR));
         }
-        return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Update failed", INTERNAL_SERVER_ERROR));
     }
 
     @DeleteMapping("/{imageId}")
     public ResponseEntity<ApiResponse> deleteImage(@PathVariable Long imageId){
         try {
-            Image image = imageService.getImageById(imageId);
-            if (image != null){
-                imageService.deleteImageById(imageId);
-                return ResponseEntity.ok(new ApiResponse("Delete Success!", null));
-            }
+            imageService.deleteImageById(imageId);
+            return ResponseEntity.ok(new ApiResponse("Delete Success!", null));
         } catch (ResourceException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Delete Failed!", INTERNAL_SERVER_ERROR));
         }
-        return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Delete Failed!", INTERNAL_SERVER_ERROR));
     }
 }
@@ -0,0 +1,72 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.dto.InventoryResult;
+import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.request.InventoryRequest;
+import com.project.ecommerceapp.response.ApiResponse;
+import com.project.ecommerceapp.service.inventory.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.function.Function;
+
+import static org.springframework.http.HttpStatus.*;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("${api.prefix}/inventory")
+public class InventoryController {
+    private final InventoryService inventoryService;
+
+    @PostMapping("/reserve")
+    public ResponseEntity<ApiResponse> reserve(@RequestBody InventoryRequest request){
+        return apply(request, inventoryService::reserve, "Reserved");
+    }
+
+    @PostMapping("/release")
+    public ResponseEntity<ApiResponse> release(@RequestBody InventoryRequest request){
+        return apply(request, inventoryService::release, "Released");
+    }
+
+    @PostMapping("/commit")
+    public ResponseEntity<ApiResponse> commit(@RequestBody InventoryRequest request){
+        return apply(request, inventoryService::commit, "Committed");
+    }
+
+    @PostMapping("/hot/{productId}")
+    public ResponseEntity<ApiResponse> promote(@PathVariable Long productId){
+        try {
+            inventoryService.promote(productId);
+            return ResponseEntity.ok(new ApiResponse("Product is hot", inventoryService.getHotProducts()));
+        } catch (ResourceException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @DeleteMapping("/hot/{productId}")
+    public ResponseEntity<ApiResponse> demote(@PathVariable Long productId){
+        inventoryService.demote(productId);
+        return ResponseEntity.ok(new ApiResponse("Product cooled down", inventoryService.getHotProducts()));
+    }
+
+    @GetMapping("/hot")
+    public ResponseEntity<ApiResponse> getHotProducts(){
+        return ResponseEntity.ok(new ApiResponse("Hot products", inventoryService.getHotProducts()));
+    }
+
+    // 200 when every item applied, 409 with the per-item outcomes otherwise
+    private ResponseEntity<ApiResponse> apply(InventoryRequest request, Function<InventoryRequest, InventoryResult> operation, String message){
+        try {
+            InventoryResult result = operation.apply(request);
+            if (!result.isSuccess()) {
+                return ResponseEntity.status(CONFLICT).body(new ApiResponse("Not all items applied", result));
+            }
+            return ResponseEntity.ok(new ApiResponse(message, result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+}
@@ -1,43 +1,82 @@
 package com.project.ecommerceapp.controller;
 
+import com.project.ecommerceapp.dto.BulkResult;
+import com.project.ecommerceapp.dto.CursorPage;
+import com.project.ecommerceapp.dto.FacetedPage;
+import com.project.ecommerceapp.dto.ImportResult;
 import com.project.ecommerceapp.dto.ProductDto;
 import com.project.ecommerceapp.exceptions.ResourceException;
 import com.project.ecommerceapp.model.Product;
 import com.project.ecommerceapp.request.AddProductRequest;
+import com.project.ecommerceapp.request.BulkDeleteRequest;
+import com.project.ecommerceapp.request.BulkUpdateRequest;
+import com.project.ecommerceapp.request.ProductFilterRequest;
+import com.project.ecommerceapp.request.UpdateProductRequest;
 import com.project.ecommerceapp.response.ApiResponse;
+import com.project.ecommerceapp.service.product.ProductBulkService;
+import com.project.ecommerceapp.service.product.ProductExportService;
+import com.project.ecommerceapp.service.product.ProductImportService;
 import com.project.ecommerceapp.service.product.ProductService;
+import com.project.ecommerceapp.service.product.ProductStatsService;
+import com.project.ecommerceapp.service.search.ProductSearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collections;
 import java.util.List;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("${api.prefix}/product")
 public class ProductController {
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductSearchService productSearchService;
+    private final ProductBulkService productBulkService;
+    private final ProductStatsService productStatsService;
 
     @GetMapping("/")
-    public ResponseEntity<ApiResponse> getProducts(){
-        List<Product>products = productService.getAllProduct();
-        List<ProductDto> dataProduct = productService.getListProductDto(products);
-        if (products.isEmpty()) {
-            return ResponseEntity.ok(new ApiResponse("No products available", Collections.emptyList()));
+    public ResponseEntity<ApiResponse> getProducts(@RequestParam(required = false) String after,
+                                                   @RequestParam(required = false) Integer size){
+        try {
+            CursorPage<Product> products = productService.getProducts(after, size);
+            if (products.getItems().isEmpty()) {
+                return ResponseEntity.ok(new ApiResponse("No products available", Collections.emptyList()));
+            }
+            return ResponseEntity.ok(new ApiResponse("Product:", toDtoPage(products)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         }
-        return ResponseEntity.ok(new ApiResponse("Product:", dataProduct));
     }
 
     @GetMapping("/id/{productId}")
-    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long productId){
+    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long productId, WebRequest webRequest){
         try {
-            Product product = productService.getProductById(productId);
-            ProductDto productDto = productService.getProductDto(product);
-            return ResponseEntity.ok(new ApiResponse("Product: ", productDto));
+            // If-None-Match is checked against the versions alone, the product is only loaded when it changed
+            if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+                String etag = productService.getProductETag(productId);
+                if (webRequest.checkNotModified(etag)) {
+                    return ResponseEntity.status(NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            ProductDto productDto = productService.getProductDtoById(productId);
+            return ResponseEntity.ok()
+                    .eTag(productService.getProductETag(productDto))
+                    .body(new ApiResponse("Product: ", productDto));
         } catch (ResourceException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Error:", e.getMessage()));
         }
@@ -54,14 +93,36 @@ public class ProductController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> importProductsJson(HttpServletRequest request){
+        try {
+            ImportResult result = productImportService.importJson(request.getInputStream());
+            return ResponseEntity.ok(new ApiResponse("Import finished", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ApiResponse> importProductsCsv(HttpServletRequest request){
+        try {
+            ImportResult result = productImportService.importCsv(request.getInputStream());
+            return ResponseEntity.ok(new ApiResponse("Import finished", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
     @PutMapping("/{productId}/update")
-    public ResponseEntity<ApiResponse> updateProduct(@RequestBody AddProductRequest request, @PathVariable Long productId){
+    public ResponseEntity<ApiResponse> updateProduct(@RequestBody UpdateProductRequest request, @PathVariable Long productId){
         try {
-            Product product = productService.getProductById(productId);
+            Product product = productService.updateProduct(request, productId);
             ProductDto productDto = productService.getProductDto(product);
             return ResponseEntity.ok(new ApiResponse("Product updated", productDto));
         } catch (ResourceException e){
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Update failed", null));
+        } catch (OptimisticLockingFailureException e){
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse("Product was changed concurrently, reload and retry", null));
         }
     }
 
@@ -75,6 +136,26 @@ public class ProductController {
         }
     }
 
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<ApiResponse> deleteProducts(@RequestBody BulkDeleteRequest request){
+        try {
+            BulkResult result = productBulkService.deleteProducts(request);
+            return ResponseEntity.ok(new ApiResponse("Products deleted", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/bulk/update")
+    public ResponseEntity<ApiResponse> updateProducts(@RequestBody BulkUpdateRequest request){
+        try {
+            BulkResult result = productBulkService.updateProducts(request);
+            return ResponseEntity.ok(new ApiResponse("Products updated", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/brand-and-name")
     public ResponseEntity<ApiResponse> getProductsByBrandAndName(@RequestParam String brandName, @RequestParam String productName){
         try {
@@ -90,61 +171,127 @@ public class ProductController {
     }
 
     @GetMapping("/category-and-brand")
-    public ResponseEntity<ApiResponse> getProductsByCategoryAndBrand(@RequestParam String category, @RequestParam String brandName){
+    public ResponseEntity<ApiResponse> getProductsByCategoryAndBrand(@RequestParam String category, @RequestParam String brandName,
+                                                                     @RequestParam(required = false) String after,
+                                                                     @RequestParam(required = false) Integer size){
         try {
-            List<Product> products = productService.getProductsByCategoryAndBrand(category, brandName);
-            List<ProductDto> dataProduct = productService.getListProductDto(products);
-            if (products.isEmpty()) {
+            CursorPage<Product> products = productService.getProductsByCategoryAndBrand(category, brandName, after, size);
+            if (products.getItems().isEmpty()) {
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Product not found", null));
             }
-            return ResponseEntity.ok(new ApiResponse("Data:", dataProduct));
+            return ResponseEntity.ok(new ApiResponse("Data:", toDtoPage(products)));
+        } catch (IllegalArgumentException e){
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e){
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/{name}")
-    public ResponseEntity<ApiResponse> getProductsByName(@PathVariable String name){
+    public ResponseEntity<ApiResponse> getProductsByName(@PathVariable String name,
+                                                         @RequestParam(required = false) String after,
+                                                         @RequestParam(required = false) Integer size){
         try {
-            List<Product> products = productService.getProductsByName(name);
-            List<ProductDto> dataProduct = productService.getListProductDto(products);
-            if (products.isEmpty()){
+            CursorPage<Product> products = productService.getProductsByName(name, after, size);
+            if (products.getItems().isEmpty()){
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Products with name " + name + " not found", null));
             }
-            return ResponseEntity.ok(new ApiResponse("Data:", dataProduct));
+            return ResponseEntity.ok(new ApiResponse("Data:", toDtoPage(products)));
+        } catch (IllegalArgumentException e){
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e){
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/brand")
-    public ResponseEntity<ApiResponse> getProductsByBrand(@RequestParam String brand){
+    public ResponseEntity<ApiResponse> getProductsByBrand(@RequestParam String brand,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(required = false) Integer size){
         try {
-            List<Product> products = productService.getProductsByBrand(brand);
-            List<ProductDto> dataProduct = productService.getListProductDto(products);
-            if (products.isEmpty()){
+            CursorPage<Product> products = productService.getProductsByBrand(brand, after, size);
+            if (products.getItems().isEmpty()){
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Products with brand " + brand + " not found", null));
             }
-            return ResponseEntity.ok(new ApiResponse("Data:", dataProduct));
+            return ResponseEntity.ok(new ApiResponse("Data:", toDtoPage(products)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/{category}")
-    public ResponseEntity<ApiResponse> getProductsByCategory(@PathVariable String category){
+    public ResponseEntity<ApiResponse> getProductsByCategory(@PathVariable String category,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(required = false) Integer size){
         try {
-            List<Product> products = productService.getProductsByCategory(category);
-            List<ProductDto> dataProduct = productService.getListProductDto(products);
-            if (products.isEmpty()){
+            CursorPage<Product> products = productService.getProductsByCategory(category, after, size);
+            if (products.getItems().isEmpty()){
                 return ResponseEntity.status(NOT_FOUND).body(new ApiResponse("Products with category " + category + " not found", null));
             }
-            return ResponseEntity.ok(new ApiResponse("Data:", dataProduct));
+            return ResponseEntity.ok(new ApiResponse("Data:", toDtoPage(products)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<ApiResponse> filterProducts(ProductFilterRequest filter,
+                                                      @RequestParam(required = false) String after,
+                                                      @RequestParam(required = false) Integer size){
+        try {
+            FacetedPage<Product> products = productService.filterProducts(filter, after, size);
+            List<ProductDto> items = productService.getListProductDto(products.getItems());
+            return ResponseEntity.ok(new ApiResponse("Data:", new FacetedPage<>(items, products.getNextCursor(), products.getFacets())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse> getCacheStats(){
+        return ResponseEntity.ok(new ApiResponse("Product cache", productService.getCacheStats()));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse> getStats(@RequestParam(required = false) String brand,
+                                                @RequestParam(required = false) String category){
+        if (brand == null && category == null) {
+            return ResponseEntity.ok(new ApiResponse("Catalog statistics", productStatsService.getStats()));
+        }
+        try {
+            return ResponseEntity.ok(new ApiResponse("Statistics", productStatsService.getStats(brand, category)));
+        } catch (ResourceException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse> searchProducts(@RequestParam("q") String query, @RequestParam(required = false) Integer limit){
+        return ResponseEntity.ok(new ApiResponse("Data:", productSearchService.search(query, limit)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format){
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"")
+                    .body(productExportService::exportCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(productExportService::exportNdjson);
+        }
+        return ResponseEntity.status(BAD_REQUEST).build();
+    }
+
     @GetMapping("/count")
     public ResponseEntity<ApiResponse> countProductsByBrandAndName(@RequestParam String brand, @RequestParam String name){
         try {
@@ -154,4 +301,10 @@ public class ProductController {
             return ResponseEntity.ok(new ApiResponse(e.getMessage(), null));
         }
     }
+
+    // the row version covers product, stock and image changes, the category version a rename of the embedded category;
+    // both are kept in the database, so every instance hands out the same tag for the same state
+    private CursorPage<ProductDto> toDtoPage(CursorPage<Product> page){
+        return new CursorPage<>(productService.getListProductDto(page.getItems()), page.getNextCursor());
+    }
 }
@@ -0,0 +1,11 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public class BulkResult {
+    private long products;
+    private long images;
+}
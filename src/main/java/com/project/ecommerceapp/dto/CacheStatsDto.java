@@ -0,0 +1,29 @@
+package com.project.ecommerceapp.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+@Data
+public class CacheStatsDto {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long loadCount;
+    private double averageLoadMillis;
+
+    public static CacheStatsDto of(CacheStats stats, long size) {
+        CacheStatsDto dto = new CacheStatsDto();
+        dto.setSize(size);
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setLoadCount(stats.loadCount());
+        dto.setAverageLoadMillis(stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1));
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+// brandCategories is keyed by brand, then category name
+@AllArgsConstructor
+@Data
+public class CatalogStats {
+    private ProductStats total;
+    private Map<String, ProductStats> brands;
+    private Map<String, ProductStats> categories;
+    private Map<String, Map<String, ProductStats>> brandCategories;
+    private Instant refreshedAt;
+}
@@ -0,0 +1,16 @@
+package com.project.ecommerceapp.dto;
+
+import com.project.ecommerceapp.model.CatalogChange;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// next is the since of the following request, also when the page is empty; hasMore asks to call again right away
+@AllArgsConstructor
+@Data
+public class ChangePage {
+    private List<CatalogChange> changes;
+    private long next;
+    private boolean hasMore;
+}
@@ -0,0 +1,13 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
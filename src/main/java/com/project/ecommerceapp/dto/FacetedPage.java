@@ -0,0 +1,14 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class FacetedPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private ProductFacets facets;
+}
@@ -0,0 +1,12 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public class HotProductDto {
+    private Long productId;
+    private long available;
+    private long reserved;
+}
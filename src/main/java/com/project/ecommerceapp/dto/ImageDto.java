@@ -6,5 +6,16 @@ import lombok.Data;
 public class ImageDto {
     private Long id;
     private String fileName;
+    private String fileType;
+    private Long size;
+    private Integer width;
+    private Integer height;
+    // SHA-256 of the content
+    private String checksum;
     private String downloadUrl;
+
+    // apiPrefix is the configured api.prefix, ImageController serves downloads below it
+    public static String downloadUrl(String apiPrefix, Long imageId) {
+        return apiPrefix + "/images/download/" + imageId;
+    }
 }
@@ -0,0 +1,13 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportResult {
+    private long imported;
+    private long failed;
+    private List<ImportRowError> errors = new ArrayList<>();
+}
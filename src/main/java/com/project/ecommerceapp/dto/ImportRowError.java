@@ -0,0 +1,11 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public class ImportRowError {
+    private long row;
+    private String message;
+}
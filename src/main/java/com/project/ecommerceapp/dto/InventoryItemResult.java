@@ -0,0 +1,12 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public class InventoryItemResult {
+    private Long productId;
+    private int quantity;
+    private InventoryStatus status;
+}
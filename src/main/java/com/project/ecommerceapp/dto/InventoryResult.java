@@ -0,0 +1,14 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class InventoryResult {
+    // true when every item was applied
+    private boolean success;
+    private List<InventoryItemResult> items;
+}
@@ -0,0 +1,10 @@
+package com.project.ecommerceapp.dto;
+
+public enum InventoryStatus {
+    APPLIED,
+    // not enough units: in stock for reserve, reserved for release and commit
+    INSUFFICIENT,
+    NOT_FOUND,
+    // would have applied, undone because another item of an all-or-nothing request failed
+    ROLLED_BACK
+}
@@ -13,6 +13,8 @@ public class ProductDto {
     private String brand;
     private BigDecimal price;
     private int inventory;
+    private int reserved;
+    private long version;
     private String description;
     private Category category;
     private List<ImageDto> images;
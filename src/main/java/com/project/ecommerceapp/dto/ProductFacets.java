@@ -0,0 +1,14 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@Data
+public class ProductFacets {
+    private long total;
+    private Map<String, Long> brands;
+    private Map<String, Long> categories;
+}
@@ -0,0 +1,16 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@Data
+public class ProductSearchHit {
+    private Long id;
+    private String name;
+    private String brand;
+    private BigDecimal price;
+    private float score;
+}
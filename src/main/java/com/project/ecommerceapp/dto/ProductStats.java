@@ -0,0 +1,19 @@
+package com.project.ecommerceapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// inventory counts the units buyers can still get, inventoryValue is the sum of price * inventory
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ProductStats {
+    private long count;
+    private long inventory;
+    private BigDecimal inventoryValue = BigDecimal.ZERO;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
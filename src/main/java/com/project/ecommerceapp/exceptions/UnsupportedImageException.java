@@ -0,0 +1,7 @@
+package com.project.ecommerceapp.exceptions;
+
+public class UnsupportedImageException extends RuntimeException{
+    public UnsupportedImageException(String message) {
+        super(message);
+    }
+}
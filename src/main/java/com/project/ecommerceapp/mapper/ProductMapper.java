@@ -1,27 +1,39 @@
 package com.project.ecommerceapp.mapper;
 
+import com.project.ecommerceapp.dto.ImageDto;
 import com.project.ecommerceapp.dto.ProductDto;
 import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
 import com.project.ecommerceapp.model.Product;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
 
-@Mapper
+@Mapper(imports = ImageDto.class)
 public interface ProductMapper {
 
     ProductMapper INSTANCE = Mappers.getMapper(ProductMapper.class);
 
-    @Mapping(source = "category.name", target = "category")
-    ProductDto producToProductDto(Product product);
+    @Mapping(source = "available", target = "inventory")
+    ProductDto producToProductDto(Product product, @Context String apiPrefix);
 
-    List<ProductDto> productListToProductDto(List<Product> products);
+    List<ProductDto> productListToProductDto(List<Product> products, @Context String apiPrefix);
 
-    default Category map(String value){
-        Category category = new Category();
-        category.setName(value);
+    // the download url is derived from the id and the configured api.prefix, it is not stored with the image
+    @Mapping(target = "downloadUrl", expression = "java(ImageDto.downloadUrl(apiPrefix, image.getId()))")
+    @Mapping(source = "storageKey", target = "checksum")
+    ImageDto imageToImageDto(Image image, @Context String apiPrefix);
+
+    // name and version only, the version is part of the product's ETag
+    default Category map(Category value){
+        if (value == null) {
+            return null;
+        }
+        Category category = new Category(value.getName());
+        category.setVersion(value.getVersion());
         return category;
     }
 }
@@ -0,0 +1,57 @@
+package com.project.ecommerceapp.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/*
+    Outbox row of the change feed, appended in the transaction of the catalog write it describes.
+    It only names what changed, consumers fetch the current state of the entity. seq is the feed position, null until
+    ChangeFeedService.publish numbers the row after its transaction committed, so positions are handed out in commit
+    order and a consumer never passes a position below which a row can still appear.
+*/
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_catalog_change_entity", columnList = "type, entityId"),
+        @Index(name = "uk_catalog_change_seq", columnList = "seq", unique = true)
+})
+public class CatalogChange {
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType type;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeOp op;
+
+    // the product's @Version, null for entities without one
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    public CatalogChange(ChangeType type, Long entityId, ChangeOp op, Long version, Instant changedAt) {
+        this.type = type;
+        this.entityId = entityId;
+        this.op = op;
+        this.version = version;
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.ecommerceapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+    The single row holding the last position handed out by the change feed publisher.
+    Locked for the whole publish transaction, publishers of all application instances number rows one after the other.
+*/
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class CatalogChangeHead {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+    private long seq;
+}
@@ -0,0 +1,25 @@
+package com.project.ecommerceapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+    The single row holding the catalog version shared by all application instances (see CatalogVersion),
+    together with the CatalogVersionEntry rows not folded into it yet. Only the poll updates it, writers never lock it.
+*/
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class CatalogVersionCounter {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+    private long version;
+}
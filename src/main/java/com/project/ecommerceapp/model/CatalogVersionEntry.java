@@ -0,0 +1,23 @@
+package com.project.ecommerceapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/*
+    One row per catalog write, inserted in the write's transaction (see CatalogVersion).
+    Writers only insert, so they never wait on each other; the rows are folded into CatalogVersionCounter by the poll.
+*/
+@Getter
+@NoArgsConstructor
+@Entity
+public class CatalogVersionEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "catalog_version_entry_seq")
+    @SequenceGenerator(name = "catalog_version_entry_seq", sequenceName = "catalog_version_entry_seq", allocationSize = 50)
+    private Long id;
+}
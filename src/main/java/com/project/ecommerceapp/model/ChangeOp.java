@@ -0,0 +1,7 @@
+package com.project.ecommerceapp.model;
+
+// UPSERT: fetch the entity again, DELETE: drop it
+public enum ChangeOp {
+    UPSERT,
+    DELETE
+}
@@ -0,0 +1,8 @@
+package com.project.ecommerceapp.model;
+
+// the catalog entities recorded in the change feed
+public enum ChangeType {
+    PRODUCT,
+    CATEGORY,
+    IMAGE
+}
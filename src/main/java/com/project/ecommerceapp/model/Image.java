@@ -5,26 +5,36 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import java.sql.Blob;
+import java.time.Instant;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_image_storage_key", columnList = "storageKey"))
 public class Image {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "image_seq")
+    @SequenceGenerator(name = "image_seq", sequenceName = "image_seq", allocationSize = 50)
     private Long id;
     private String fileName;
     private String fileType;
 
-    @Lob
-    private Blob image;
-    private String downloadUrl;
+    // SHA-256 of the content, the bytes themselves live in ImageStorage
+    @Column(length = 64)
+    private String storageKey;
+    private Long size;
+    // pixels, null when the content is not a format ImageIO can read
+    private Integer width;
+    private Integer height;
 
-    @ManyToOne
+    @UpdateTimestamp
+    private Instant lastModified;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 }
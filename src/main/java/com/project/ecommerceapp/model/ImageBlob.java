@@ -0,0 +1,27 @@
+package com.project.ecommerceapp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Blob;
+
+/*
+    The legacy payload column of the image table, mapped apart from Image so that no image or product read ever
+    selects it. Rows are created through Image, only rows that ImageBlobMigration has not moved to ImageStorage yet
+    still have a payload, and it is read only by the migration and the download path.
+*/
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "image")
+public class ImageBlob {
+    @Id
+    private Long id;
+
+    @Lob
+    @Column(name = "image")
+    private Blob image;
+}
@@ -0,0 +1,24 @@
+package com.project.ecommerceapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+    One row per hot inventory journal: the last segment written to the product table.
+    Advanced in the same transaction as the segment's deltas, so a segment is never applied twice after a crash.
+    Every application instance has its own journal, and therefore its own row.
+*/
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class InventoryCheckpoint {
+    @Id
+    private String journal;
+    private long epoch;
+}
@@ -0,0 +1,37 @@
+package com.project.ecommerceapp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+    Units of a hot product leased by one hot inventory journal, that is by one application instance.
+    Product.held is the sum over all journals. An instance only ever returns its own rows, a restart or cool down of
+    one instance leaves the leases of the others in place.
+    Moved in the same transactions as Product.held: on lease, with every written journal segment and on return.
+*/
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_inventory_lease", columnNames = {"journal", "product_id"}))
+public class InventoryLease {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String journal;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    private int quantity;
+
+    public InventoryLease(String journal, Long productId, int quantity) {
+        this.journal = journal;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+}
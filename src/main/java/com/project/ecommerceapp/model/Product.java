@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -12,9 +14,16 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_brand_id", columnList = "brand, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_category_id", columnList = "category_id, id"),
+        @Index(name = "idx_product_category_brand_id", columnList = "category_id, brand, id")
+})
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String brand;
@@ -22,10 +31,29 @@ public class Product {
     private int inventory;
     private String description;
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    // units held by open carts, moved back and forth with inventory by InventoryService, never by the generic update
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int reserved;
+
+    // units leased out of inventory to the in-memory counters of a hot product (HotInventory), returned when it cools down
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int held;
+
+    // bumped by every update, the inventory statements included, so a stale read-modify-write fails instead of overwriting
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // no cascade: categories are managed by CategoryService, and products may point to cached detached copies
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
+    // loaded for up to 100 products per select (one listing page), instead of one select per product
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Image> images;
 
@@ -37,4 +65,9 @@ public class Product {
         this.description = description;
         this.category = category;
     }
+
+    // what a buyer can still reserve, wherever the units currently sit
+    public int getAvailable() {
+        return inventory + held;
+    }
 }
@@ -0,0 +1,12 @@
+package com.project.ecommerceapp.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BrandCategoryCount {
+    private String brand;
+    private String category;
+    private long count;
+}
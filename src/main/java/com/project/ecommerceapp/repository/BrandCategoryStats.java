@@ -0,0 +1,19 @@
+package com.project.ecommerceapp.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// inventory is what buyers can still get (inventory + held), the value prices that stock
+@Getter
+@AllArgsConstructor
+public class BrandCategoryStats {
+    private String brand;
+    private String category;
+    private long count;
+    private long inventory;
+    private BigDecimal inventoryValue;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
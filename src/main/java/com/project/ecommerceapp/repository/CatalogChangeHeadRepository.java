@@ -0,0 +1,17 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.CatalogChangeHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CatalogChangeHeadRepository extends JpaRepository<CatalogChangeHead, Integer> {
+    // held until the publish transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from CatalogChangeHead h where h.id = :id")
+    Optional<CatalogChangeHead> findForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,44 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.CatalogChange;
+import com.project.ecommerceapp.model.ChangeOp;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+    // keyset page of the feed, rows not yet published have no seq and are left out
+    List<CatalogChange> findBySeqGreaterThanOrderBySeqAsc(Long since, Limit limit);
+
+    // committed rows waiting for a position, [min id, max id]
+    @Query("select min(c.id), max(c.id) from CatalogChange c where c.seq is null")
+    List<Object[]> findUnpublishedIdRange();
+
+    // positions follow the id order and stay above the previous head: seq = id + offset
+    @Modifying
+    @Query("update CatalogChange c set c.seq = c.id + :offset where c.seq is null and c.id between :from and :to")
+    int publish(@Param("from") Long from, @Param("to") Long to, @Param("offset") long offset);
+
+    // one statement per chunk of a set-based write, run before a delete so the last version is still there
+    @Modifying
+    @Query("insert into CatalogChange (type, entityId, op, version, changedAt) "
+            + "select com.project.ecommerceapp.model.ChangeType.PRODUCT, p.id, :op, p.version, :at from Product p where p.id in :ids")
+    int appendProducts(@Param("ids") Collection<Long> ids, @Param("op") ChangeOp op, @Param("at") Instant at);
+
+    @Modifying
+    @Query("insert into CatalogChange (type, entityId, op, changedAt) "
+            + "select com.project.ecommerceapp.model.ChangeType.IMAGE, i.id, :op, :at from Image i where i.product.id in :productIds")
+    int appendImagesOfProducts(@Param("productIds") Collection<Long> productIds, @Param("op") ChangeOp op, @Param("at") Instant at);
+
+    // only the newest change per entity matters to a consumer, every older published row is superseded
+    @Modifying
+    @Query("delete from CatalogChange c where exists (select 1 from CatalogChange n "
+            + "where n.type = c.type and n.entityId = c.entityId and n.seq > c.seq)")
+    int deleteSuperseded();
+}
@@ -0,0 +1,20 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.CatalogVersionCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CatalogVersionCounterRepository extends JpaRepository<CatalogVersionCounter, Integer> {
+    // folds entries in, called in the transaction that deletes them
+    @Modifying
+    @Query("update CatalogVersionCounter c set c.version = c.version + :count where c.id = :id")
+    int add(@Param("id") Integer id, @Param("count") long count);
+
+    // one statement, so a concurrent fold is seen either entirely or not at all
+    @Query("select c.version + (select count(e) from CatalogVersionEntry e) from CatalogVersionCounter c where c.id = :id")
+    Optional<Long> findVersion(@Param("id") Integer id);
+}
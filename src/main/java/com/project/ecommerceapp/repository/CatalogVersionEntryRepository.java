@@ -0,0 +1,13 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.CatalogVersionEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CatalogVersionEntryRepository extends JpaRepository<CatalogVersionEntry, Long> {
+    // only the committed rows, entries of transactions still running stay for the next round
+    @Modifying
+    @Query("delete from CatalogVersionEntry e")
+    int deleteCommitted();
+}
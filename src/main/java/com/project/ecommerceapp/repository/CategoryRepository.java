@@ -2,9 +2,25 @@ package com.project.ecommerceapp.repository;
 
 import com.project.ecommerceapp.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Category findByName(String name);
 
     boolean existsByName(String name);
+
+    List<Category> findByNameIn(Collection<String> names);
+
+    @Query("select c.name from Category c where c.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Category c where c.id = :id")
+    int deleteRowById(@Param("id") Long id);
 }
@@ -0,0 +1,27 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.ImageBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, Long> {
+    // ids of the payloads not moved to ImageStorage yet, in id order after afterId
+    @Query("select b.id from ImageBlob b where b.image is not null and b.id > :afterId "
+            + "and b.id in (select i.id from Image i where i.storageKey is null) order by b.id")
+    List<Long> findUnmigratedIds(@Param("afterId") Long afterId, Limit limit);
+
+    boolean existsByIdAndImageIsNotNull(Long id);
+
+    // PostgreSQL keeps the payload as a large object that outlives its oid, it has to be unlinked before the oid goes
+    @Query(value = "select lo_unlink(image) from image where id = :id and image is not null", nativeQuery = true)
+    List<Integer> unlinkLargeObject(@Param("id") Long id);
+
+    @Modifying
+    @Query("update ImageBlob b set b.image = null where b.id = :id and b.image is not null")
+    int clearById(@Param("id") Long id);
+}
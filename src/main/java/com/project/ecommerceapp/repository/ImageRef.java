@@ -0,0 +1,7 @@
+package com.project.ecommerceapp.repository;
+
+// what deleting an image needs to know about it: the stored content and the cached product
+public interface ImageRef {
+    String getStorageKey();
+    Long getProductId();
+}
@@ -2,9 +2,35 @@ package com.project.ecommerceapp.repository;
 
 import com.project.ecommerceapp.model.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findByProductId(Long id);
+
+    List<Image> findByProductIdInOrderById(Collection<Long> productIds);
+
+    // the queries below never load an Image entity
+    @Query("select i.storageKey as storageKey, i.product.id as productId from Image i where i.id = :id")
+    Optional<ImageRef> findRefById(@Param("id") Long id);
+
+    @Query("select distinct i.storageKey from Image i where i.product.id in :productIds and i.storageKey is not null")
+    List<String> findStorageKeysByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // the keys of the given ones that some image still points to
+    @Query("select distinct i.storageKey from Image i where i.storageKey in :keys")
+    List<String> findStorageKeysIn(@Param("keys") Collection<String> keys);
+
+    @Modifying
+    @Query("delete from Image i where i.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Image i where i.product.id in :productIds")
+    int deleteByProductIdIn(@Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,14 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.InventoryCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface InventoryCheckpointRepository extends JpaRepository<InventoryCheckpoint, String> {
+    // zero when the epoch was already written
+    @Modifying
+    @Query("update InventoryCheckpoint c set c.epoch = :epoch where c.journal = :journal and c.epoch < :epoch")
+    int advance(@Param("journal") String journal, @Param("epoch") long epoch);
+}
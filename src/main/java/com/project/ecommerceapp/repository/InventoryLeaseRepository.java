@@ -0,0 +1,21 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.InventoryLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface InventoryLeaseRepository extends JpaRepository<InventoryLease, Long> {
+    List<InventoryLease> findByJournal(String journal);
+
+    Optional<InventoryLease> findByJournalAndProductId(String journal, Long productId);
+
+    // zero when the journal holds no lease of the product yet
+    @Modifying
+    @Query("update InventoryLease l set l.quantity = l.quantity + :quantity where l.journal = :journal and l.productId = :productId")
+    int add(@Param("journal") String journal, @Param("productId") Long productId, @Param("quantity") int quantity);
+}
@@ -0,0 +1,24 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductBulkRepository {
+    /*
+        - Ids of the products matching spec in id order, a scalar query that loads no entity.
+    */
+    List<Long> findIds(Specification<Product> spec);
+
+    /*
+        - One update statement for the given ids, every argument left null keeps its column.
+        - price becomes price * priceFactor + priceDelta, never below zero.
+        - inventory becomes the given total minus what is held by hot counters, or inventory + inventoryDelta,
+          never below zero. The version is bumped on every row.
+        - Returns the number of updated rows.
+    */
+    int adjust(Collection<Long> ids, BigDecimal priceFactor, BigDecimal priceDelta, Integer inventory, Integer inventoryDelta);
+}
@@ -0,0 +1,63 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ProductBulkRepositoryImpl implements ProductBulkRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id")).orderBy(cb.asc(root.get("id")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public int adjust(Collection<Long> ids, BigDecimal priceFactor, BigDecimal priceDelta, Integer inventory, Integer inventoryDelta) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+        if (priceFactor != null || priceDelta != null) {
+            Expression<BigDecimal> price = root.get("price");
+            if (priceFactor != null) {
+                price = cb.prod(price, priceFactor);
+            }
+            if (priceDelta != null) {
+                price = cb.sum(price, priceDelta);
+            }
+            update.set(root.<BigDecimal>get("price"), notNegative(cb, price, BigDecimal.ZERO));
+        }
+        if (inventory != null) {
+            update.set(root.<Integer>get("inventory"), notNegative(cb, cb.diff(cb.literal(inventory), root.get("held")), 0));
+        } else if (inventoryDelta != null) {
+            update.set(root.<Integer>get("inventory"), notNegative(cb, cb.sum(root.get("inventory"), inventoryDelta), 0));
+        }
+        update.set(root.<Long>get("version"), cb.sum(root.get("version"), 1L));
+        update.where(root.get("id").in(ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static <N extends Number & Comparable<N>> Expression<N> notNegative(CriteriaBuilder cb, Expression<N> value, N zero) {
+        return cb.<N>selectCase().when(cb.lessThan(value, zero), zero).otherwise(value);
+    }
+}
@@ -0,0 +1,19 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductFacetRepository {
+    /*
+        - The products matching pageSpec by id, at most limit, and the counts of facetSpec per (brand, category name)
+          pair, in one statement: the page and the grouped counts are combined with union all.
+    */
+    ProductPageWithFacets findPageWithFacets(Specification<Product> pageSpec, Specification<Product> facetSpec, int limit);
+
+    /*
+        - Count, stock, stock value and price range per (brand, category name) pair, in one grouped query.
+    */
+    List<BrandCategoryStats> statsByBrandAndCategory();
+}
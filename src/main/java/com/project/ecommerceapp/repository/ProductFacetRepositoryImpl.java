@@ -0,0 +1,109 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaRoot;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class ProductFacetRepositoryImpl implements ProductFacetRepository {
+    private final EntityManager entityManager;
+
+    /*
+        Both branches select the same columns: the product and its category on page rows, brand, category name and
+        count on facet rows, null elsewhere. A facet row has no product id. Product attributes added later must be
+        selected here as well, the page products are built from these columns only.
+    */
+    @Override
+    public ProductPageWithFacets findPageWithFacets(Specification<Product> pageSpec, Specification<Product> facetSpec, int limit) {
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+
+        JpaCriteriaQuery<Tuple> page = cb.createTupleQuery();
+        JpaRoot<Product> product = page.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.LEFT);
+        page.multiselect(product.get("id"), product.get("name"), product.get("brand"), product.get("price"),
+                product.get("inventory"), product.get("reserved"), product.get("held"), product.get("version"),
+                product.get("description"), category.get("id"), category.get("name"), category.get("version"),
+                cb.nullLiteral(Long.class));
+        where(page, pageSpec.toPredicate(product, page, cb));
+        page.orderBy(cb.asc(product.get("id")));
+        page.fetch(limit);
+
+        JpaCriteriaQuery<Tuple> facets = cb.createTupleQuery();
+        JpaRoot<Product> counted = facets.from(Product.class);
+        Join<Product, Category> countedCategory = counted.join("category", JoinType.LEFT);
+        List<Selection<?>> facetColumns = List.of(cb.nullLiteral(Long.class), cb.nullLiteral(String.class),
+                counted.get("brand"), cb.nullLiteral(BigDecimal.class), cb.nullLiteral(Integer.class),
+                cb.nullLiteral(Integer.class), cb.nullLiteral(Integer.class), cb.nullLiteral(Long.class),
+                cb.nullLiteral(String.class), cb.nullLiteral(Long.class), countedCategory.get("name"),
+                cb.nullLiteral(Long.class), cb.count(counted));
+        facets.multiselect(facetColumns);
+        where(facets, facetSpec.toPredicate(counted, facets, cb));
+        facets.groupBy(counted.get("brand"), countedCategory.get("name"));
+
+        List<Product> products = new ArrayList<>();
+        List<BrandCategoryCount> counts = new ArrayList<>();
+        Map<Long, Category> categories = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(cb.unionAll(page, facets)).getResultList()) {
+            if (row.get(0) == null) {
+                counts.add(new BrandCategoryCount(row.get(2, String.class), row.get(10, String.class), row.get(12, Long.class)));
+            } else {
+                products.add(toProduct(row, categories));
+            }
+        }
+        return new ProductPageWithFacets(products, counts);
+    }
+
+    private static void where(JpaCriteriaQuery<Tuple> query, Predicate predicate) {
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private static Product toProduct(Tuple row, Map<Long, Category> categories) {
+        Product product = new Product();
+        product.setId(row.get(0, Long.class));
+        product.setName(row.get(1, String.class));
+        product.setBrand(row.get(2, String.class));
+        product.setPrice(row.get(3, BigDecimal.class));
+        product.setInventory(row.get(4, Integer.class));
+        product.setReserved(row.get(5, Integer.class));
+        product.setHeld(row.get(6, Integer.class));
+        product.setVersion(row.get(7, Long.class));
+        product.setDescription(row.get(8, String.class));
+        Long categoryId = row.get(9, Long.class);
+        if (categoryId != null) {
+            product.setCategory(categories.computeIfAbsent(categoryId, id -> {
+                Category category = new Category(row.get(10, String.class));
+                category.setId(id);
+                category.setVersion(row.get(11, Long.class));
+                return category;
+            }));
+        }
+        return product;
+    }
+
+    @Override
+    public List<BrandCategoryStats> statsByBrandAndCategory() {
+        return entityManager.createQuery("select new com.project.ecommerceapp.repository.BrandCategoryStats("
+                        + "p.brand, c.name, count(p), sum(p.inventory + p.held), sum(p.price * (p.inventory + p.held)), "
+                        + "min(p.price), max(p.price)) "
+                        + "from Product p left join p.category c group by p.brand, c.name", BrandCategoryStats.class)
+                .getResultList();
+    }
+}
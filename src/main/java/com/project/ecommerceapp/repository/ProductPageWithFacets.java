@@ -0,0 +1,15 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// the products are built from the selected columns and are not managed, their images are not set
+@Getter
+@AllArgsConstructor
+public class ProductPageWithFacets {
+    private List<Product> products;
+    private List<BrandCategoryCount> counts;
+}
@@ -1,20 +1,119 @@
 package com.project.ecommerceapp.repository;
 
 import com.project.ecommerceapp.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductFacetRepository, ProductBulkRepository {
+    int STREAM_FETCH_SIZE = 500;
+
+    // list queries load the category in the same select, images are batch fetched (see Product.images)
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+
+    @EntityGraph(attributePaths = "category")
     List<Product> findByCategoryName(String category);
 
+    @EntityGraph(attributePaths = "category")
     List<Product> findByBrand(String brand);
 
+    @EntityGraph(attributePaths = "category")
     List<Product> findByCategoryNameAndBrand(String category, String brand);
 
+    @EntityGraph(attributePaths = "category")
     List<Product> findByName(String name);
 
+    @EntityGraph(attributePaths = "category")
     List<Product> findByBrandAndName(String brand, String name);
 
     Long countByBrandAndName(String brand, String name);
+
+    // keyset pages: "id > after order by id" reads at most limit rows from the index, without a count query
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByBrandAndIdGreaterThanOrderByIdAsc(String brand, Long after, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByCategoryNameAndIdGreaterThanOrderByIdAsc(String category, Long after, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(String category, String brand, Long after, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByNameAndIdGreaterThanOrderByIdAsc(String name, Long after, Limit limit);
+
+    // inventory changes are single conditional statements: the row lock of the update serialises concurrent buyers,
+    // and a zero update count means the condition did not hold, nothing is read or written in between
+    @Modifying
+    @Query("update Product p set p.inventory = p.inventory - :quantity, p.reserved = p.reserved + :quantity, "
+            + "p.version = p.version + 1 where p.id = :id and p.inventory >= :quantity")
+    int reserveInventory(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.inventory = p.inventory + :quantity, p.reserved = p.reserved - :quantity, "
+            + "p.version = p.version + 1 where p.id = :id and p.reserved >= :quantity")
+    int releaseInventory(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.reserved = p.reserved - :quantity, "
+            + "p.version = p.version + 1 where p.id = :id and p.reserved >= :quantity")
+    int commitInventory(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // the images are part of the product: adding, replacing or removing one is a new version of it
+    @Modifying
+    @Query("update Product p set p.version = p.version + 1 where p.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    @Query("select p.version as version, c.version as categoryVersion from Product p left join p.category c where p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+
+    // set-based delete, the images of these products must be gone first (see ImageRepository.deleteByProductIdIn)
+    @Modifying
+    @Query("delete from Product p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // hot products (HotInventory): units leased to the in-memory counters move to held, and back when the product cools down
+    @Query("select p.inventory from Product p where p.id = :id")
+    Optional<Integer> findInventoryById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Product p set p.inventory = p.inventory - :quantity, p.held = p.held + :quantity, "
+            + "p.version = p.version + 1 where p.id = :id and p.inventory >= :quantity")
+    int leaseInventory(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // quantity is what one instance's InventoryLease still holds, the leases of other instances stay in held
+    @Modifying
+    @Query("update Product p set p.inventory = p.inventory + :quantity, p.held = p.held - :quantity, "
+            + "p.version = p.version + 1 where p.id = :id")
+    int returnHeldInventory(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // server-side cursor: must be consumed inside a read-only transaction so the driver honours the fetch size
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Product p left join fetch p.category order by p.id")
+    Stream<Product> streamAllBy();
 }
@@ -0,0 +1,47 @@
+package com.project.ecommerceapp.repository;
+
+import com.project.ecommerceapp.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/*
+    Building blocks for product filters, combined with Specification.allOf into a single where clause.
+*/
+public final class ProductSpecifications {
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> hasCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("name"), category);
+    }
+
+    public static Specification<Product> hasBrand(String brand) {
+        return (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Product> hasName(String name) {
+        return (root, query, cb) -> cb.equal(root.get("name"), name);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal price) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), price);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal price) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), price);
+    }
+
+    public static Specification<Product> inStock() {
+        return (root, query, cb) -> cb.greaterThan(cb.sum(root.<Integer>get("inventory"), root.<Integer>get("held")), 0);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Product> idAfter(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.ecommerceapp.repository;
+
+// what a product's ETag is made of, to answer a conditional GET without loading the product
+public interface ProductVersion {
+    long getVersion();
+    Long getCategoryVersion();
+}
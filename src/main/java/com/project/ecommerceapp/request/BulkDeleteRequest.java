@@ -0,0 +1,17 @@
+package com.project.ecommerceapp.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// selects the products to delete, the criteria that are set are combined with and
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+    private List<Long> ids;
+    private String brand;
+    private String category;
+}
@@ -0,0 +1,24 @@
+package com.project.ecommerceapp.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class BulkUpdateRequest {
+    // selection, the criteria that are set are combined with and
+    private List<Long> ids;
+    private String brand;
+    private String category;
+    private String name;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    // adjustments: -10 for 10% off, then priceDelta is added
+    private BigDecimal pricePercent;
+    private BigDecimal priceDelta;
+    // either a new total inventory or a change of it
+    private Integer inventory;
+    private Integer inventoryDelta;
+}
@@ -0,0 +1,13 @@
+package com.project.ecommerceapp.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItem {
+    private Long productId;
+    private int quantity;
+}
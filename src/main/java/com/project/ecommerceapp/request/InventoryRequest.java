@@ -0,0 +1,13 @@
+package com.project.ecommerceapp.request;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class InventoryRequest {
+    private List<InventoryItem> items = new ArrayList<>();
+    // when set, either every item is applied or none is
+    private boolean allOrNothing;
+}
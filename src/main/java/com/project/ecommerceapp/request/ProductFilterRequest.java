@@ -0,0 +1,15 @@
+package com.project.ecommerceapp.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductFilterRequest {
+    private String category;
+    private String brand;
+    private String name;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean inStock;
+}
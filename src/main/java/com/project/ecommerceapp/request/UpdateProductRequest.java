@@ -14,4 +14,6 @@ public class UpdateProductRequest {
     private int inventory;
     private String description;
     private Category category;
+    // version the client read, the update is refused if the product changed since
+    private Long version;
 }
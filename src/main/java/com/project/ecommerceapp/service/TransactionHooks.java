@@ -0,0 +1,30 @@
+package com.project.ecommerceapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+    Work that must only happen once the current transaction has committed, e.g. updating an in-memory copy of a row:
+    a rolled back write must leave no trace, and a reader must not see the new state before the database has it.
+*/
+public final class TransactionHooks {
+    private TransactionHooks() {
+    }
+
+    /*
+        - Runs action after the current transaction commits, never if it rolls back.
+        - Runs it right away when called outside a transaction.
+    */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.ecommerceapp.service.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// an encoded response body with its ETag, gzip is null when compressing it was not worth it
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+    private final String contentType;
+    private final String etag;
+    private final byte[] body;
+    private final byte[] gzip;
+
+    int weight() {
+        return body.length + (gzip == null ? 0 : gzip.length);
+    }
+}
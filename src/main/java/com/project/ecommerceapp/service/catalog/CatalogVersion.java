@@ -0,0 +1,151 @@
+package com.project.ecommerceapp.service.catalog;
+
+import com.project.ecommerceapp.config.ReadWriteRoutingDataSource;
+import com.project.ecommerceapp.model.CatalogVersionCounter;
+import com.project.ecommerceapp.model.CatalogVersionEntry;
+import com.project.ecommerceapp.repository.CatalogVersionCounterRepository;
+import com.project.ecommerceapp.repository.CatalogVersionEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Counter of catalog changes: every product, category and image write bumps it in its transaction.
+    Whatever is derived from the catalog (ResponseCache entries) is keyed by the version it was built from, so a
+    bump makes all of it unreachable at once, without tracking which entry depends on which row.
+    Stock movements (InventoryService) do not bump it, listings may show stock up to catalog.response-cache.ttl old.
+    The version is the CatalogVersionCounter row plus the number of CatalogVersionEntry rows, shared by every instance
+    and kept across restarts. Each write inserts an entry, so it raises the version by one the moment it commits,
+    in whatever order concurrent writes commit, and no writer waits on another. The poll folds the entries into the row.
+    A write is seen by its own instance once it commits, and by the others at their next poll (catalog.version.poll-interval).
+*/
+@Component
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong();
+    private volatile long advancedAt = System.nanoTime();
+    private final ResponseCache responseCache;
+    private final CatalogVersionCounterRepository counterRepository;
+    private final CatalogVersionEntryRepository entryRepository;
+    private final TransactionTemplate ownTransaction;
+    private volatile long foldedAt;
+
+    public CatalogVersion(ResponseCache responseCache, CatalogVersionCounterRepository counterRepository,
+                          CatalogVersionEntryRepository entryRepository, PlatformTransactionManager transactionManager) {
+        this.responseCache = responseCache;
+        this.counterRepository = counterRepository;
+        this.entryRepository = entryRepository;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // creates the row on the first start, another instance starting at the same time may win the insert
+    @PostConstruct
+    public void load() {
+        try {
+            ownTransaction.executeWithoutResult(status -> {
+                if (!counterRepository.existsById(CatalogVersionCounter.ID)) {
+                    counterRepository.saveAndFlush(new CatalogVersionCounter(CatalogVersionCounter.ID, 0));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // created concurrently
+        }
+        poll();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    // the current version for ETags and other values that outlive this run, the same on every instance
+    public String tag() {
+        return Long.toString(version.get());
+    }
+
+    // false once the current version is older than window, a replica lagging by less than that has all of it;
+    // read the version first, an advance in between then makes this true
+    public boolean advancedWithin(Duration window) {
+        return System.nanoTime() - advancedAt < window.toNanos();
+    }
+
+    /*
+        - Adds an entry right before the transaction commits, once however often it is called.
+        - The new version is only taken after the commit, a reader that starts in between still sees the old rows.
+        - The version counted in the transaction may miss writes committed meanwhile, the next poll catches up.
+    */
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advanceTo(ownTransaction.execute(status -> append()));
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long committed;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                committed = append();
+            }
+
+            @Override
+            public void afterCommit() {
+                advanceTo(committed);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersion.this);
+            }
+        });
+    }
+
+    // picks up the writes of other instances, from the primary: the replica lag is accounted for by advancedWithin
+    @Scheduled(fixedDelayString = "${catalog.version.poll-interval:PT1S}",
+            initialDelayString = "${catalog.version.poll-interval:PT1S}")
+    public void poll() {
+        ReadWriteRoutingDataSource.onPrimary(() -> counterRepository.findVersion(CatalogVersionCounter.ID))
+                .ifPresent(latest -> {
+                    advanceTo(latest);
+                    fold(latest);
+                });
+    }
+
+    private long append() {
+        entryRepository.saveAndFlush(new CatalogVersionEntry());
+        return counterRepository.findVersion(CatalogVersionCounter.ID).orElseThrow();
+    }
+
+    // keeps the entries to count small, once per new version; the deleted and the added count are one transaction
+    private void fold(long latest) {
+        if (latest <= foldedAt) {
+            return;
+        }
+        ownTransaction.executeWithoutResult(status ->
+                counterRepository.add(CatalogVersionCounter.ID, entryRepository.deleteCommitted()));
+        foldedAt = latest;
+    }
+
+    // advancedAt moves before the version does, see advancedWithin
+    private void advanceTo(long next) {
+        if (next <= version.get()) {
+            return;
+        }
+        advancedAt = System.nanoTime();
+        if (next > version.getAndAccumulate(next, Math::max)) {
+            // entries of older versions can never be hit again, free their memory right away
+            responseCache.clear();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.ecommerceapp.service.catalog;
+
+import com.project.ecommerceapp.dto.ChangePage;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
+
+import java.util.Collection;
+
+public interface ChangeFeedService {
+    void record(ChangeType type, Long id, ChangeOp op, Long version);
+    void recordProducts(Collection<Long> ids, ChangeOp op);
+    void recordImagesOfProducts(Collection<Long> productIds, ChangeOp op);
+    ChangePage getChanges(Long since, Integer limit);
+    int publish();
+    int compact();
+}
@@ -0,0 +1,136 @@
+package com.project.ecommerceapp.service.catalog;
+
+import com.project.ecommerceapp.dto.ChangePage;
+import com.project.ecommerceapp.model.CatalogChange;
+import com.project.ecommerceapp.model.CatalogChangeHead;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
+import com.project.ecommerceapp.repository.CatalogChangeHeadRepository;
+import com.project.ecommerceapp.repository.CatalogChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/*
+    Transactional outbox of catalog writes, read by partners through GET /changes to mirror the catalog incrementally.
+    Writers append inside their own transaction (MANDATORY), so a change is in the feed exactly when it committed.
+    Rows get no position at insert: a position taken then becomes visible only at commit, and a long transaction
+    (a bulk delete, a large import) would commit rows below positions readers already passed. publish numbers the
+    committed rows every catalog.changes.publish-interval instead, under a lock on CatalogChangeHead, so positions
+    become visible in increasing order.
+    Compaction keeps only the newest row per entity, a consumer still sees every entity that changed since its position.
+*/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final CatalogChangeHeadRepository catalogChangeHeadRepository;
+
+    @Value("${catalog.changes.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${catalog.changes.max-limit:1000}")
+    private int maxLimit;
+
+    /*
+        - Appends one change, must run inside the transaction of the write it describes.
+        - version : The entity's @Version after the write, null for entities without one.
+    */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeType type, Long id, ChangeOp op, Long version) {
+        catalogChangeRepository.save(new CatalogChange(type, id, op, version, Instant.now()));
+    }
+
+    /*
+        - Appends a change for each of these products with one statement, versions are read from the rows.
+        - For deletes it must run before the rows are removed.
+    */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProducts(Collection<Long> ids, ChangeOp op) {
+        if (!ids.isEmpty()) {
+            catalogChangeRepository.appendProducts(ids, op, Instant.now());
+        }
+    }
+
+    /*
+        - Appends a change for every image of these products with one statement, before a delete removes them.
+    */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordImagesOfProducts(Collection<Long> productIds, ChangeOp op) {
+        if (!productIds.isEmpty()) {
+            catalogChangeRepository.appendImagesOfProducts(productIds, op, Instant.now());
+        }
+    }
+
+    /*
+        - Retrieves the changes after position since, oldest first.
+        - since : The next value of the previous page, 0 for a consumer starting from scratch.
+        - limit : Requested page size, capped at catalog.changes.max-limit.
+        - Will throw IllegalArgumentException for a negative since.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public ChangePage getChanges(Long since, Integer limit) {
+        long position = since == null ? 0 : since;
+        if (position < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        // one extra row tells whether another page is ready
+        List<CatalogChange> rows = catalogChangeRepository.findBySeqGreaterThanOrderBySeqAsc(position, Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+        List<CatalogChange> changes = hasMore ? rows.subList(0, size) : rows;
+        long next = changes.isEmpty() ? position : changes.get(changes.size() - 1).getSeq();
+        return new ChangePage(changes, next, hasMore);
+    }
+
+    /*
+        - Gives every committed change without a position the next positions of the feed, in insert order.
+        - Returns the number of changes published.
+    */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${catalog.changes.publish-interval:PT1S}")
+    public int publish() {
+        CatalogChangeHead head = catalogChangeHeadRepository.findForUpdate(CatalogChangeHead.ID)
+                .orElseGet(() -> catalogChangeHeadRepository.saveAndFlush(new CatalogChangeHead(CatalogChangeHead.ID, 0)));
+        Object[] range = catalogChangeRepository.findUnpublishedIdRange().get(0);
+        if (range[0] == null) {
+            return 0;
+        }
+        long from = (Long) range[0];
+        long to = (Long) range[1];
+        long offset = head.getSeq() - from + 1;
+        int published = catalogChangeRepository.publish(from, to, offset);
+        head.setSeq(to + offset);
+        return published;
+    }
+
+    /*
+        - Deletes every change superseded by a newer one for the same entity.
+        - Returns the number of rows removed.
+    */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${catalog.changes.compaction-interval:PT10M}")
+    public int compact() {
+        int removed = catalogChangeRepository.deleteSuperseded();
+        if (removed > 0) {
+            log.info("Compacted {} superseded catalog changes", removed);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,74 @@
+package com.project.ecommerceapp.service.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.ecommerceapp.dto.CacheStatsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/*
+    Encoded bodies of catalog listing responses, keyed by request and CatalogVersion (see ResponseCacheFilter).
+    Bounded by the bytes it holds, catalog.response-cache.max-size, and evicted by W-TinyLFU beyond that.
+    Bodies above catalog.response-cache.gzip-min-size are also kept gzip-compressed, once per entry instead of once
+    per response, next to the ETag they were served with.
+*/
+@Component
+public class ResponseCache {
+    private final Cache<String, CachedResponse> entries;
+    private final boolean gzip;
+    private final long gzipMinSize;
+
+    public ResponseCache(@Value("${catalog.response-cache.max-size:64MB}") DataSize maxSize,
+                         @Value("${catalog.response-cache.ttl:10s}") Duration ttl,
+                         @Value("${catalog.response-cache.gzip:true}") boolean gzip,
+                         @Value("${catalog.response-cache.gzip-min-size:1KB}") DataSize gzipMinSize,
+                         MeterRegistry meterRegistry) {
+        this.gzip = gzip;
+        this.gzipMinSize = gzipMinSize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "response");
+    }
+
+    public CachedResponse get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    public CachedResponse put(String key, String etag, String contentType, byte[] body) {
+        CachedResponse response = new CachedResponse(contentType, etag, body,
+                gzip && body.length >= gzipMinSize ? compress(body) : null);
+        entries.put(key, response);
+        return response;
+    }
+
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.of(entries.stats(), entries.estimatedSize());
+    }
+
+    private static byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,76 @@
+package com.project.ecommerceapp.service.category;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.ecommerceapp.dto.CacheStatsDto;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static com.project.ecommerceapp.service.TransactionHooks.afterCommit;
+
+/*
+    Bounded name -> category cache for the product write paths.
+    Values are detached copies holding only id, name and version, safe to share between requests and to reference from new products.
+    CategoryServiceImpl keeps it in sync on every category write, the TTL only bounds staleness from writes made elsewhere.
+    Inside a transaction put and evict wait for the commit: a rolled back insert must not leave an id behind that
+    products would then reference, and an evicted name must not be loaded again from the row before its rename commits.
+*/
+@Component
+public class CategoryCache {
+    private final CategoryRepository categoryRepository;
+    private final Cache<String, Category> byName;
+
+    public CategoryCache(CategoryRepository categoryRepository,
+                         @Value("${category.cache.max-size:1000}") long maxSize,
+                         @Value("${category.cache.ttl:10m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.byName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byName, "category");
+    }
+
+    /*
+        - Returns the category with that name, loading it on a miss.
+        - Returns null if no such category exists, misses are not cached.
+    */
+    public Category getByName(String name) {
+        return byName.get(name, key -> snapshot(categoryRepository.findByName(key)));
+    }
+
+    public void put(Category category) {
+        if (category != null && category.getName() != null) {
+            Category copy = snapshot(category);
+            afterCommit(() -> byName.put(copy.getName(), copy));
+        }
+    }
+
+    public void evict(String name) {
+        if (name != null) {
+            afterCommit(() -> byName.invalidate(name));
+        }
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.of(byName.stats(), byName.estimatedSize());
+    }
+
+    private static Category snapshot(Category category) {
+        if (category == null) {
+            return null;
+        }
+        Category copy = new Category(category.getName());
+        copy.setId(category.getId());
+        copy.setVersion(category.getVersion());
+        return copy;
+    }
+}
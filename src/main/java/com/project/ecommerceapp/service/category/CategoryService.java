@@ -1,5 +1,6 @@
 package com.project.ecommerceapp.service.category;
 
+import com.project.ecommerceapp.dto.CacheStatsDto;
 import com.project.ecommerceapp.model.Category;
 
 import java.util.List;
@@ -11,4 +12,5 @@ public interface CategoryService {
     Category addCategory(Category category);
     Category updateCategory(Category category, Long id);
     void deleteCategoryById(Long id);
+    CacheStatsDto getCacheStats();
 }
@@ -1,10 +1,17 @@
 package com.project.ecommerceapp.service.category;
 
+import com.project.ecommerceapp.dto.CacheStatsDto;
 import com.project.ecommerceapp.exceptions.ResourceException;
 import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
 import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,42 +20,71 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService{
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final ProductDtoCache productDtoCache;
+    private final CatalogVersion catalogVersion;
+    private final ChangeFeedService changeFeedService;
 
     @Override
+    @Transactional(readOnly = true)
     public Category getCategoryById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceException("Category Not Found!"));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Category getCategoryByName(String name) {
         return categoryRepository.findByName(name);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
 
     @Override
+    @Transactional
     public Category addCategory(Category category) {
-        return Optional.of(category).filter(c -> !categoryRepository.existsByName(c.getName()))
+        Category saved = Optional.of(category).filter(c -> !categoryRepository.existsByName(c.getName()))
                 .map(categoryRepository::save)
                 .orElseThrow(() -> new ResourceException(category.getName()+" Already Exist"));
+        changeFeedService.record(ChangeType.CATEGORY, saved.getId(), ChangeOp.UPSERT, null);
+        categoryCache.put(saved);
+        catalogVersion.bump();
+        return saved;
     }
 
     @Override
+    @Transactional
     public Category updateCategory(Category category, Long id) {
         return Optional.ofNullable(getCategoryById(id)).map(oldCategory -> {
+            categoryCache.evict(oldCategory.getName());
             oldCategory.setName(category.getName());
-            return categoryRepository.save(oldCategory);
+            Category saved = categoryRepository.save(oldCategory);
+            changeFeedService.record(ChangeType.CATEGORY, id, ChangeOp.UPSERT, null);
+            categoryCache.put(saved);
+            productDtoCache.invalidateAll();
+            catalogVersion.bump();
+            return saved;
         }).orElseThrow(() -> new ResourceException("Category Not Found!"));
     }
 
+    // reads only the name for the cache, the row goes with one delete statement
     @Override
+    @Transactional
     public void deleteCategoryById(Long id) {
-        categoryRepository.findById(id).ifPresentOrElse(categoryRepository::delete, () -> {
-            throw new ResourceException("Category Not Found!");
-        });
+        String name = categoryRepository.findNameById(id)
+                .orElseThrow(() -> new ResourceException("Category Not Found!"));
+        categoryRepository.deleteRowById(id);
+        changeFeedService.record(ChangeType.CATEGORY, id, ChangeOp.DELETE, null);
+        categoryCache.evict(name);
+        catalogVersion.bump();
+    }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        return categoryCache.stats();
     }
 }
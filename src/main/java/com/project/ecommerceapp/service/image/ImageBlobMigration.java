@@ -0,0 +1,208 @@
+package com.project.ecommerceapp.service.image;
+
+import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.ImageBlob;
+import com.project.ecommerceapp.repository.ImageBlobRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import com.project.ecommerceapp.service.image.storage.StoredImage;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+    This class moves image bytes from the legacy @Lob column of the image table (ImageBlob) into ImageStorage.
+    Rows are migrated in batches, each batch in its own transaction, so a failure only rolls back the current batch
+    and the job can be restarted at any time. A failed batch is retried row by row, a row that still fails is logged
+    and skipped until the next start. After the move the row keeps only metadata and the storage key.
+    On PostgreSQL the payload is a large object referenced by the column's oid, it is unlinked with the column
+    cleared, otherwise it would stay in pg_largeobject and the move would free nothing.
+*/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageBlobMigration {
+    private final ImageRepository imageRepository;
+    private final ProductRepository productRepository;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageStorage imageStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final ChangeFeedService changeFeedService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${image.storage.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${image.storage.migration.enabled:true}")
+    private boolean enabled;
+
+    /*
+        - Starts the migration in the background once the application is up, if image.storage.migration.enabled.
+    */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread worker = new Thread(this::migrateAll, "image-blob-migration");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /*
+        - Migrates batches until every legacy row was tried once.
+        - Returns the number of images moved, rows that could not be moved are logged and left for the next start.
+    */
+    public long migrateAll() {
+        long total = 0;
+        int failed = 0;
+        Long afterId = 0L;
+        List<Long> ids;
+        while (!(ids = unmigratedIds(afterId)).isEmpty()) {
+            int moved = migrateBatch(ids);
+            if (moved < 0) {
+                moved = 0;
+                for (Long id : ids) {
+                    if (migrateRow(id)) {
+                        moved++;
+                    } else {
+                        failed++;
+                    }
+                }
+            }
+            total += moved;
+            if (moved > 0) {
+                // size and dimensions are part of the listed image dtos
+                catalogVersion.bump();
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (total > 0 || failed > 0) {
+            log.info("Moved {} images from the database to image storage, {} could not be moved", total, failed);
+        }
+        return total;
+    }
+
+    /*
+        - Clears the legacy payload of a row, unlinking its large object on PostgreSQL.
+        - Must run inside a transaction.
+    */
+    public void discard(Long id) {
+        if (largeObjects()) {
+            imageBlobRepository.unlinkLargeObject(id);
+        }
+        imageBlobRepository.clearById(id);
+    }
+
+    private List<Long> unmigratedIds(Long afterId) {
+        return transactionTemplate.execute(status ->
+                imageBlobRepository.findUnmigratedIds(afterId, Limit.of(batchSize)));
+    }
+
+    // all rows in one transaction, -1 when any of them failed and the batch was rolled back
+    private int migrateBatch(List<Long> ids) {
+        try {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<ImageBlob> blobs = imageBlobRepository.findAllById(ids);
+                Map<Long, Image> images = imageRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Image::getId, Function.identity()));
+                blobs.forEach(blob -> moveToStorage(images.get(blob.getId()), blob));
+                return blobs.size();
+            });
+            return moved == null ? 0 : moved;
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private boolean migrateRow(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> imageBlobRepository.findById(id)
+                    .filter(blob -> blob.getImage() != null)
+                    .ifPresent(blob -> imageRepository.findById(id)
+                            .filter(image -> image.getStorageKey() == null)
+                            .ifPresent(image -> moveToStorage(image, blob))));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Cannot move image {} to image storage, skipped until the next start", id, e);
+            return false;
+        }
+    }
+
+    // whether the row still holds a payload to move, the payload itself is not read
+    public boolean hasLegacyContent(Long id) {
+        return imageBlobRepository.existsByIdAndImageIsNotNull(id);
+    }
+
+    /*
+        - Migrates a single row, used when a legacy image is requested before the job reached it.
+        - Runs in a write transaction of its own, call it outside any transaction. Returns the image as it is after.
+        - Will throw exception if image not found.
+    */
+    public Image migrate(Long id) {
+        return transactionTemplate.execute(status -> {
+            Image image = imageRepository.findById(id)
+                    .orElseThrow(() -> new ResourceException("No image found with id: " + id));
+            if (image.getStorageKey() == null) {
+                imageBlobRepository.findById(id)
+                        .filter(blob -> blob.getImage() != null)
+                        .ifPresent(blob -> {
+                            moveToStorage(image, blob);
+                            catalogVersion.bump();
+                        });
+            }
+            return image;
+        });
+    }
+
+    // both entities are managed, the changes are flushed with the transaction
+    private void moveToStorage(Image image, ImageBlob blob) {
+        try (InputStream content = blob.getImage().getBinaryStream()) {
+            StoredImage stored = imageStorage.store(content);
+            image.setStorageKey(stored.getKey());
+            image.setSize(stored.getSize());
+            ImageDimensions.apply(image, imageStorage.locate(stored.getKey()));
+            if (largeObjects()) {
+                imageBlobRepository.unlinkLargeObject(blob.getId());
+            }
+            blob.setImage(null);
+            // size and dimensions are in the product's image dtos
+            if (image.getProduct() != null) {
+                productRepository.incrementVersion(image.getProduct().getId());
+            }
+            changeFeedService.record(ChangeType.IMAGE, image.getId(), ChangeOp.UPSERT, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read image " + image.getId(), e);
+        }
+    }
+
+    private boolean largeObjects() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                instanceof PostgreSQLDialect;
+    }
+}
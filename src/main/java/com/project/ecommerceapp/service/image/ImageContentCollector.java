@@ -0,0 +1,97 @@
+package com.project.ecommerceapp.service.image;
+
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.project.ecommerceapp.service.TransactionHooks.afterCommit;
+
+/*
+    Deletes stored image content that no image row points to anymore.
+    Content is shared between identical uploads, and an upload running next to a delete is handed the existing key by
+    ImageStorage.store before its row commits: a check-then-delete at release time could remove the file under it.
+    Released keys are only remembered instead. Every image.storage.gc-interval the ones still unreferenced are deleted
+    if their content was not stored again within image.storage.gc-grace, which must exceed the longest upload.
+*/
+@Slf4j
+@Component
+public class ImageContentCollector {
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+    private final Duration grace;
+    private final int chunkSize;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+
+    public ImageContentCollector(ImageRepository imageRepository,
+                                 ImageStorage imageStorage,
+                                 @Value("${image.storage.gc-grace:PT10M}") Duration grace,
+                                 @Value("${product.bulk.chunk-size:1000}") int chunkSize) {
+        this.imageRepository = imageRepository;
+        this.imageStorage = imageStorage;
+        this.grace = grace;
+        this.chunkSize = chunkSize;
+    }
+
+    /*
+        - Marks content whose image rows were deleted or replaced, it goes with a later sweep if still unused then.
+        - Inside a transaction the keys are marked once it commits, a rolled back delete leaves its content alone.
+    */
+    public void release(Collection<String> keys) {
+        List<String> released = keys.stream().filter(key -> key != null).toList();
+        if (!released.isEmpty()) {
+            afterCommit(() -> candidates.addAll(released));
+        }
+    }
+
+    public void release(String key) {
+        if (key != null) {
+            afterCommit(() -> candidates.add(key));
+        }
+    }
+
+    /*
+        - Deletes the released content that is unreferenced and was not stored again within the grace period.
+        - Returns the number of files removed, keys stored too recently stay for the next sweep.
+    */
+    @Scheduled(fixedDelayString = "${image.storage.gc-interval:PT1M}")
+    public int sweep() {
+        List<String> keys = new ArrayList<>(candidates);
+        Instant cutoff = Instant.now().minus(grace);
+        int deleted = 0;
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+            Set<String> referenced = new HashSet<>(imageRepository.findStorageKeysIn(chunk));
+            for (String key : chunk) {
+                if (referenced.contains(key)) {
+                    candidates.remove(key);
+                    continue;
+                }
+                try {
+                    if (imageStorage.deleteIfStoredBefore(key, cutoff)) {
+                        candidates.remove(key);
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot delete image content {}", key, e);
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced image files", deleted);
+        }
+        return deleted;
+    }
+}
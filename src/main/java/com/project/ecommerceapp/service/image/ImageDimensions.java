@@ -0,0 +1,40 @@
+package com.project.ecommerceapp.service.image;
+
+import com.project.ecommerceapp.model.Image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/*
+    Width and height of a stored image, read from the format header without decoding the pixels.
+*/
+final class ImageDimensions {
+    private ImageDimensions() {
+    }
+
+    // leaves width and height null for content ImageIO cannot read
+    static void apply(Image image, Path file) throws IOException {
+        image.setWidth(null);
+        image.setHeight(null);
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                image.setWidth(reader.getWidth(0));
+                image.setHeight(reader.getHeight(0));
+            } catch (IOException e) {
+                // not a readable image after all, the content is served as it is
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -3,11 +3,16 @@ package com.project.ecommerceapp.service.image;
 import com.project.ecommerceapp.dto.ImageDto;
 import com.project.ecommerceapp.model.Image;
 import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface ImageService {
     Image getImageById(Long id);
+    Image getImageForDownload(Long id);
+    Path getImageFile(Image image) throws IOException;
     void deleteImageById(Long id);
     List<ImageDto> saveImages(Long productId, List<MultipartFile> files);
     void updateImage (MultipartFile file, Long imageId);
-}
\ No newline at end of file
+}
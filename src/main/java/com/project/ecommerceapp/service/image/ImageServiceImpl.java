@@ -2,29 +2,58 @@ package com.project.ecommerceapp.service.image;
 
 import com.project.ecommerceapp.dto.ImageDto;
 import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.mapper.ProductMapper;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
 import com.project.ecommerceapp.model.Image;
 import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.ImageRef;
 import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import com.project.ecommerceapp.service.image.storage.StoredImage;
+import com.project.ecommerceapp.service.image.variant.ImageVariantService;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
 import com.project.ecommerceapp.service.product.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.sql.rowset.serial.SerialBlob;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 /*
     This class is a service implementation that provides methods for managing images associated with products.
     Using ImageRepository class to interact with the image database and the ProductService class to retrieve product information.
+    Image bytes are kept in ImageStorage, the database row only holds metadata and the storage key.
+    Content of deleted or replaced images is handed to ImageContentCollector, it may still be shared with other rows.
+    The images are part of the cached ProductDto, so every image change invalidates the product in ProductDtoCache.
 */
 @Service
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService{
     private final ImageRepository imageRepository;
+    private final ProductRepository productRepository;
     private final ProductService productService;
+    private final ImageStorage imageStorage;
+    private final ImageBlobMigration imageBlobMigration;
+    private final ImageVariantService imageVariantService;
+    private final ImageContentCollector imageContentCollector;
+    private final ProductDtoCache productDtoCache;
+    private final CatalogVersion catalogVersion;
+    private final ChangeFeedService changeFeedService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${api.prefix}")
+    private String apiPrefix;
 
     /*
         - Retrieves image by id
@@ -37,16 +66,58 @@ public class ImageServiceImpl implements ImageService{
                 .orElseThrow(() -> new ResourceException("No image found with id: " + id));
     }
 
+    /*
+        - Retrieves image by id, ready to be served from ImageStorage.
+        - id : The id of the image to retrieve
+        - Read in a read-only transaction, from the replica. Rows still holding a legacy blob are then migrated on the
+          spot in a write transaction of their own, started once the read one has given its connection back: holding
+          both would deadlock concurrent downloads on a small pool. Will throw exception if image not found
+    */
+    @Override
+    public Image getImageForDownload(Long id) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        boolean[] legacy = new boolean[1];
+        Image image = readOnly.execute(status -> {
+            Image found = getImageById(id);
+            legacy[0] = found.getStorageKey() == null && imageBlobMigration.hasLegacyContent(id);
+            return found;
+        });
+        return legacy[0] ? imageBlobMigration.migrate(id) : image;
+    }
+
+    /*
+        - Resolves the stored file of an image.
+        - image : Image returned by getImageForDownload
+        - Will throw exception if the image has no content
+    */
+    @Override
+    public Path getImageFile(Image image) throws IOException {
+        if (image.getStorageKey() == null) {
+            throw new ResourceException("No content for image with id: " + image.getId());
+        }
+        return imageStorage.locate(image.getStorageKey());
+    }
+
     /*
         - Delete image by his id
         - id : The id of the image to retrieve and will deleted
         - Will throw exception if image not found
+        - Only the storage key and product id are read, the row is removed with one delete statement.
     */
     @Override
+    @Transactional
     public void deleteImageById(Long id) {
-        imageRepository.findById(id).ifPresentOrElse(imageRepository::delete, () -> {
-            throw new ResourceException("No image found with id: "+ id);
-        });
+        ImageRef image = imageRepository.findRefById(id)
+                .orElseThrow(() -> new ResourceException("No image found with id: "+ id));
+        imageRepository.deleteRowById(id);
+        changeFeedService.record(ChangeType.IMAGE, id, ChangeOp.DELETE, null);
+        imageContentCollector.release(image.getStorageKey());
+        if (image.getProductId() != null) {
+            productRepository.incrementVersion(image.getProductId());
+            productDtoCache.invalidate(image.getProductId());
+        }
+        catalogVersion.bump();
     }
 
     /*
@@ -55,38 +126,35 @@ public class ImageServiceImpl implements ImageService{
         - file : A list of MultipartFile objects representing the images to save.
         - Return a list of ImageDto objects representing the saved images.
         - Throw error exception if an error appears while saving the images.
+        - Every file is streamed into ImageStorage, then all rows are inserted in one transaction as a single JDBC batch.
     */
     @Override
+    @Transactional
     public List<ImageDto> saveImages(Long productId, List<MultipartFile> files) {
-        Product product = productService.getProductById(productId);
+        Product product = productService.getProductReference(productId);
 
-        List<ImageDto> saveImagedDto = new ArrayList<>();
+        List<Image> images = new ArrayList<>(files.size());
         for (MultipartFile file : files) {
             try {
                 Image image = new Image();
                 image.setFileName(file.getOriginalFilename());
                 image.setFileType(file.getContentType());
-                image.setImage(new SerialBlob(file.getBytes()));
                 image.setProduct(product);
-
-                String buildDownloadUrl = "api/v1/images/image/download";
-                String downloadUrl = buildDownloadUrl+image.getId();
-                image.setDownloadUrl(downloadUrl);
-                Image savedImage = imageRepository.save(image);
-
-                savedImage.setDownloadUrl(buildDownloadUrl+savedImage.getId());
-                imageRepository.save(savedImage);
-
-                ImageDto imageDto = new ImageDto();
-                imageDto.setId(savedImage.getId());
-                imageDto.setFileName(savedImage.getFileName());
-                imageDto.setDownloadUrl(savedImage.getDownloadUrl());
-                saveImagedDto.add(imageDto);
-            } catch (IOException | SQLException e) {
+                storeContent(image, file);
+                images.add(image);
+            } catch (IOException e) {
                 throw new RuntimeException(e.getMessage());
             }
         }
-        return saveImagedDto;
+        List<Image> stored = imageRepository.saveAll(images);
+        stored.forEach(image -> changeFeedService.record(ChangeType.IMAGE, image.getId(), ChangeOp.UPSERT, null));
+        List<ImageDto> saved = stored.stream()
+                .map(image -> ProductMapper.INSTANCE.imageToImageDto(image, apiPrefix))
+                .toList();
+        productRepository.incrementVersion(productId);
+        productDtoCache.invalidate(productId);
+        catalogVersion.bump();
+        return saved;
     }
 
     /*
@@ -96,15 +164,43 @@ public class ImageServiceImpl implements ImageService{
         - Throw error exception if errors appear while updating images.
     */
     @Override
+    @Transactional
     public void updateImage(MultipartFile file, Long imageId) {
         Image image = getImageById(imageId);
+        String previousKey = image.getStorageKey();
         try {
             image.setFileName(file.getOriginalFilename());
             image.setFileType(file.getContentType());
-            image.setImage(new SerialBlob(file.getBytes()));
+            storeContent(image, file);
             imageRepository.save(image);
-        } catch (IOException | SQLException e){
+            // a legacy payload left on the row would be migrated over the new content
+            imageBlobMigration.discard(imageId);
+            changeFeedService.record(ChangeType.IMAGE, imageId, ChangeOp.UPSERT, null);
+        } catch (IOException e){
             throw new RuntimeException(e.getMessage());
         }
+        if (previousKey != null && !previousKey.equals(image.getStorageKey())) {
+            imageContentCollector.release(previousKey);
+        }
+        invalidateProduct(image);
+    }
+
+    private void invalidateProduct(Image image) {
+        if (image.getProduct() != null) {
+            productRepository.incrementVersion(image.getProduct().getId());
+            productDtoCache.invalidate(image.getProduct().getId());
+        }
+        catalogVersion.bump();
+    }
+
+    // streams the upload into ImageStorage, the multipart content is never copied into a byte[]
+    private void storeContent(Image image, MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            StoredImage stored = imageStorage.store(content);
+            image.setStorageKey(stored.getKey());
+            image.setSize(stored.getSize());
+        }
+        ImageDimensions.apply(image, imageStorage.locate(image.getStorageKey()));
+        imageVariantService.pregenerate(image.getStorageKey());
     }
 }
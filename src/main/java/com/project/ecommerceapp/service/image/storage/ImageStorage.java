@@ -0,0 +1,21 @@
+package com.project.ecommerceapp.service.image.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/*
+    Content-addressed store for image bytes.
+    Images are keyed by the SHA-256 of their content, so the same bytes are stored once
+    and a key never points to different content.
+    Storing content that is already there marks it as stored again, deleteIfStoredBefore never removes content an
+    upload has just been handed the key of.
+*/
+public interface ImageStorage {
+    StoredImage store(InputStream content) throws IOException;
+    Path locate(String key) throws IOException;
+    boolean exists(String key);
+    void delete(String key) throws IOException;
+    boolean deleteIfStoredBefore(String key, Instant cutoff) throws IOException;
+}
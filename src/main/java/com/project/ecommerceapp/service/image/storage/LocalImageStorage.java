@@ -0,0 +1,148 @@
+package com.project.ecommerceapp.service.image.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    ImageStorage on the local filesystem.
+    A file with hash "ab12cd..." lives at <root>/ab/12/ab12cd..., which keeps directories small.
+    Uploads are streamed to a temp file while hashing and then moved into place, so readers never see partial files.
+    The modification time of a file is the last time its content was stored, moving it into place and the check before
+    a garbage collected delete hold the same lock stripe, so an upload reusing the file cannot lose it in between.
+*/
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalImageStorage implements ImageStorage {
+    private final Path root;
+    private final Path tmp;
+    private final ReentrantLock[] stripes = new ReentrantLock[64];
+
+    public LocalImageStorage(@Value("${image.storage.root:data/images}") String root) throws IOException {
+        this.root = Path.of(root).toAbsolutePath();
+        this.tmp = this.root.resolve("tmp");
+        Files.createDirectories(tmp);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /*
+        - Copies content into the store.
+        - content : Image bytes, read once and not closed.
+        - Returns the content key and the size in bytes.
+    */
+    @Override
+    public StoredImage store(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                size = new DigestInputStream(content, digest).transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = path(key);
+            ReentrantLock lock = stripe(key);
+            lock.lock();
+            try {
+                if (Files.exists(target)) {
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                } else {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException e) {
+                        // the same content was stored concurrently by another process
+                        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return new StoredImage(key, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /*
+        - Resolves the file holding the content of key.
+        - Throw NoSuchFileException if nothing is stored under that key.
+    */
+    @Override
+    public Path locate(String key) throws IOException {
+        Path file = path(key);
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        return file;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(path(key));
+    }
+
+    /*
+        - Deletes the content of key unless it was stored at or after cutoff.
+        - Returns false if it is kept, true if it was deleted or is already gone.
+    */
+    @Override
+    public boolean deleteIfStoredBefore(String key, Instant cutoff) throws IOException {
+        Path file = path(key);
+        ReentrantLock lock = stripe(key);
+        lock.lock();
+        try {
+            if (!Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                return false;
+            }
+            Files.delete(file);
+        } catch (NoSuchFileException e) {
+            // deleted before
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private ReentrantLock stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private Path path(String key) {
+        if (key == null || key.length() < 4 || !key.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
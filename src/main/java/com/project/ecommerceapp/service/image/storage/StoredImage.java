@@ -0,0 +1,11 @@
+package com.project.ecommerceapp.service.image.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public class StoredImage {
+    private String key;
+    private long size;
+}
@@ -0,0 +1,15 @@
+package com.project.ecommerceapp.service.image.variant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+@Getter
+@AllArgsConstructor
+public class ImageVariant {
+    private String key;
+    private Path file;
+    private long size;
+    private String contentType;
+}
@@ -0,0 +1,10 @@
+package com.project.ecommerceapp.service.image.variant;
+
+import java.io.IOException;
+
+public interface ImageVariantService {
+    String variantKey(String storageKey, int width, String format);
+    String contentType(String format);
+    ImageVariant getVariant(String storageKey, int width, String format) throws IOException;
+    void pregenerate(String storageKey);
+}
@@ -0,0 +1,291 @@
+package com.project.ecommerceapp.service.image.variant;
+
+import com.project.ecommerceapp.exceptions.UnsupportedImageException;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.project.ecommerceapp.service.TransactionHooks.afterCommit;
+
+/*
+    This class produces resized copies of stored images with the JDK ImageIO codecs.
+    Resizing runs on a small bounded pool, so decoding large originals cannot take over the request threads or the heap.
+    The dimensions are read from the header before decoding, originals above image.variant.max-pixels are refused:
+    a small file can declare a huge canvas, and the decoded pixels take four bytes each.
+    Concurrent requests for the same variant share one resize, and results are kept in a size-capped LRU disk cache.
+    Variants are keyed by the content hash of the original, so a cached variant never goes stale.
+    Pre-generation of a new upload is queued once its transaction commits, and preset widths that do not fit in the
+    queue are counted in image.variant.pregenerate.dropped.
+*/
+@Slf4j
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+    private static final Map<String, String> CONTENT_TYPES = Map.of("jpeg", "image/jpeg", "png", "image/png");
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStorage imageStorage;
+    private final VariantDiskCache cache;
+    private final ThreadPoolExecutor executor;
+    private final Set<Integer> widths;
+    private final String defaultFormat;
+    private final Duration timeout;
+    private final long maxPixels;
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final Counter dropped;
+
+    public ImageVariantServiceImpl(ImageStorage imageStorage,
+                                   @Value("${image.variant.widths:160,320,640,1280}") List<Integer> widths,
+                                   @Value("${image.variant.default-format:jpeg}") String defaultFormat,
+                                   @Value("${image.variant.threads:2}") int threads,
+                                   @Value("${image.variant.queue-size:64}") int queueSize,
+                                   @Value("${image.variant.timeout:10s}") Duration timeout,
+                                   @Value("${image.variant.max-pixels:25000000}") long maxPixels,
+                                   @Value("${image.variant.cache-dir:data/variants}") String cacheDir,
+                                   @Value("${image.variant.cache-max-size:1GB}") DataSize cacheMaxSize,
+                                   @Value("${image.variant.cache-eviction-grace:1m}") Duration cacheEvictionGrace,
+                                   MeterRegistry meterRegistry) throws IOException {
+        this.imageStorage = imageStorage;
+        this.widths = Set.copyOf(widths);
+        this.defaultFormat = defaultFormat;
+        this.timeout = timeout;
+        this.maxPixels = maxPixels;
+        this.cache = new VariantDiskCache(Path.of(cacheDir).toAbsolutePath(), cacheMaxSize.toBytes(), cacheEvictionGrace);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.dropped = Counter.builder("image.variant.pregenerate.dropped")
+                .description("Preset variants of new uploads not pre-generated because the resize queue was full")
+                .register(meterRegistry);
+        ImageIO.setUseCache(false);
+    }
+
+    /*
+        - Builds the cache key of a variant, it is also used as its ETag.
+        - Throw IllegalArgumentException if width or format is not allowed.
+    */
+    @Override
+    public String variantKey(String storageKey, int width, String format) {
+        if (!widths.contains(width)) {
+            throw new IllegalArgumentException("Width must be one of " + widths);
+        }
+        contentType(format);
+        return storageKey + "-w" + width + "." + format;
+    }
+
+    @Override
+    public String contentType(String format) {
+        String contentType = CONTENT_TYPES.get(format);
+        if (contentType == null) {
+            throw new IllegalArgumentException("Format must be one of " + CONTENT_TYPES.keySet());
+        }
+        return contentType;
+    }
+
+    /*
+        - Returns the variant of a stored image, generating it if it is not cached yet.
+        - storageKey : Storage key of the original image.
+        - width      : Target width, one of image.variant.widths. Images are never scaled up.
+        - format     : "jpeg" or "png".
+        - Throw RejectedExecutionException when the resize queue is full, NoSuchFileException if the original is not
+          stored, UnsupportedImageException if it cannot be decoded or has more than image.variant.max-pixels pixels.
+    */
+    @Override
+    public ImageVariant getVariant(String storageKey, int width, String format) throws IOException {
+        String key = variantKey(storageKey, width, format);
+        Path file = cache.get(key);
+        if (file == null) {
+            file = await(submit(key, storageKey, width, format));
+        }
+        return new ImageVariant(key, file, Files.size(file), contentType(format));
+    }
+
+    /*
+        - Queues every preset width of a newly stored image in the default format, after the commit when called in a
+          transaction: a rolled back upload is not resized, and a committed one does not wait for the resizes.
+        - Work that does not fit in the queue is skipped, the variant is then generated on first request.
+    */
+    @Override
+    public void pregenerate(String storageKey) {
+        afterCommit(() -> {
+            for (int width : widths) {
+                String key = variantKey(storageKey, width, defaultFormat);
+                if (cache.get(key) == null) {
+                    submit(key, storageKey, width, defaultFormat).exceptionally(e -> {
+                        if (e instanceof RejectedExecutionException) {
+                            dropped.increment();
+                            log.warn("Variant {} not pre-generated, the resize queue is full", key);
+                        } else {
+                            log.debug("Variant {} not pre-generated: {}", key, e.getMessage());
+                        }
+                        return null;
+                    });
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // the first caller for a key schedules the resize, later callers get the same future until it completes
+    private CompletableFuture<Path> submit(String key, String storageKey, int width, String format) {
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Path cached = cache.get(key);
+                    created.complete(cached != null ? cached : cache.put(key, out -> resize(storageKey, width, format, out)));
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for image variant", e);
+        } catch (TimeoutException e) {
+            throw new RejectedExecutionException("Image variant not ready in " + timeout, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void resize(String storageKey, int width, String format, OutputStream out) throws IOException {
+        BufferedImage original = decode(imageStorage.locate(storageKey));
+        int targetWidth = Math.min(width, original.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) original.getHeight() * targetWidth / original.getWidth()));
+        boolean alpha = "png".equals(format) && original.getColorModel().hasAlpha();
+        BufferedImage scaled = scale(original, targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        if ("jpeg".equals(format)) {
+            writeJpeg(scaled, out);
+        } else {
+            ImageIO.write(scaled, format, out);
+        }
+    }
+
+    // checks the dimensions in the header, then decodes with the same reader
+    private BufferedImage decode(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new UnsupportedImageException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new UnsupportedImageException("Image has " + pixels + " pixels, at most " + maxPixels + " can be resized");
+                }
+                return reader.read(0);
+            } catch (IIOException e) {
+                throw new UnsupportedImageException("Unsupported image format");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // halves the image until it is close to the target, plain bilinear on large ratios looks aliased
+    private static BufferedImage scale(BufferedImage source, int width, int height, int type) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.project.ecommerceapp.service.image.variant;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/*
+    Size-capped LRU cache of generated variants on local disk.
+    The index (key -> file size, in access order) lives in memory and is rebuilt from the directory at startup,
+    oldest files first. When the total size goes over the budget the least recently used entries are dropped.
+    A dropped file stays on disk for the eviction grace: get() hands out paths that the caller opens later (Tomcat's
+    sendfile only opens it after the controller returns), deleting at once would fail those readers. Once a reader
+    has the file open the delete no longer affects it, so the grace only has to cover the time until it is opened.
+*/
+@Slf4j
+class VariantDiskCache {
+    private final Path dir;
+    private final long maxBytes;
+    private final long graceNanos;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // key -> System.nanoTime() of the eviction, oldest first
+    private final LinkedHashMap<String, Long> evicted = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long totalBytes;
+
+    VariantDiskCache(Path dir, long maxBytes, Duration evictionGrace) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.graceNanos = evictionGrace.toNanos();
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".part"))
+                    .sorted(Comparator.comparingLong(VariantDiskCache::lastModified))
+                    .forEach(file -> {
+                        long size = file.toFile().length();
+                        entries.put(file.getFileName().toString(), size);
+                        totalBytes += size;
+                    });
+        }
+        evict();
+    }
+
+    /*
+        - Returns the cached file of key and marks it as recently used, or null on a miss.
+        - The file stays readable for at least the eviction grace, even if the entry is evicted meanwhile.
+    */
+    Path get(String key) {
+        lock.lock();
+        try {
+            purge();
+            return entries.get(key) == null ? null : dir.resolve(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        - Stores the output of writer under key, then evicts old entries if the cache is over budget.
+        - Returns the cached file.
+    */
+    Path put(String key, Writer writer) throws IOException {
+        Path temp = Files.createTempFile(dir, key, ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.write(out);
+            }
+            Path target = dir.resolve(key);
+            long size = Files.size(temp);
+            lock.lock();
+            try {
+                // under the lock, so a pending delete of an earlier copy cannot remove the new file
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                evicted.remove(key);
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous == null ? 0 : previous);
+                evict();
+            } finally {
+                lock.unlock();
+            }
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    long size() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            evicted.put(eldest.getKey(), System.nanoTime());
+        }
+        purge();
+    }
+
+    // deletes the files evicted longer than the grace ago
+    private void purge() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Long>> it = evicted.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> oldest = it.next();
+            if (now - oldest.getValue() < graceNanos) {
+                return;
+            }
+            it.remove();
+            try {
+                Files.deleteIfExists(dir.resolve(oldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Cannot delete cached variant {}", oldest.getKey(), e);
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+}
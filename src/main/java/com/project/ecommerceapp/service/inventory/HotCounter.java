@@ -0,0 +1,161 @@
+package com.project.ecommerceapp.service.inventory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    In-memory stock of one hot product.
+    The available units are split over striped counters, a buyer takes units with a CAS on the stripe picked by its
+    thread and only looks at the other stripes when that one runs dry, so concurrent buyers rarely touch the same
+    cache line. A stripe never goes below zero on a take, the sum of the stripes is therefore never oversold.
+*/
+final class HotCounter {
+    // one counter per 128 bytes, stripes used by different cores do not share a cache line
+    private static final int PADDING = 16;
+
+    private final long productId;
+    private final int stripeCount;
+    private final AtomicLongArray stripes;
+    private final AtomicLong reserved;
+    private final AtomicInteger active = new AtomicInteger();
+    private final CountDownLatch demoted = new CountDownLatch(1);
+    private final ReentrantLock refill = new ReentrantLock();
+    private volatile boolean closed;
+
+    HotCounter(long productId, int stripeCount, long available, long reserved) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+        }
+        this.productId = productId;
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicLongArray(stripeCount * PADDING);
+        this.reserved = new AtomicLong(reserved);
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            stripes.set(stripe * PADDING, available / stripeCount + (stripe == 0 ? available % stripeCount : 0));
+        }
+    }
+
+    long productId() {
+        return productId;
+    }
+
+    // enter/exit bracket every use, close waits until nobody is inside and turns later callers away
+    boolean enter() {
+        active.incrementAndGet();
+        if (closed) {
+            active.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void exit() {
+        active.decrementAndGet();
+    }
+
+    void close() {
+        closed = true;
+        while (active.get() != 0) {
+            Thread.yield();
+        }
+    }
+
+    void markDemoted() {
+        demoted.countDown();
+    }
+
+    void awaitDemoted() {
+        try {
+            demoted.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while product " + productId + " cools down", e);
+        }
+    }
+
+    ReentrantLock refillLock() {
+        return refill;
+    }
+
+    boolean take(long quantity) {
+        int home = home();
+        for (int i = 0; i < stripeCount; i++) {
+            if (takeFrom(((home + i) & (stripeCount - 1)) * PADDING, quantity)) {
+                return true;
+            }
+        }
+        // no single stripe holds enough: gather from several and give back what was taken if the total is short
+        long taken = 0;
+        for (int i = 0; i < stripeCount && taken < quantity; i++) {
+            int index = ((home + i) & (stripeCount - 1)) * PADDING;
+            long value;
+            while ((value = stripes.get(index)) > 0) {
+                long part = Math.min(value, quantity - taken);
+                if (stripes.compareAndSet(index, value, value - part)) {
+                    taken += part;
+                    break;
+                }
+            }
+        }
+        if (taken < quantity) {
+            put(taken);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean takeFrom(int index, long quantity) {
+        long value;
+        while ((value = stripes.get(index)) >= quantity) {
+            if (stripes.compareAndSet(index, value, value - quantity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(long quantity) {
+        if (quantity != 0) {
+            stripes.getAndAdd(home() * PADDING, quantity);
+        }
+    }
+
+    // undoes a put whose units may already be taken again, the stripe may then stay below zero until the next put
+    void forceTake(long quantity) {
+        stripes.getAndAdd(home() * PADDING, -quantity);
+    }
+
+    boolean unreserve(long quantity) {
+        long value;
+        while ((value = reserved.get()) >= quantity) {
+            if (reserved.compareAndSet(value, value - quantity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void addReserved(long quantity) {
+        reserved.addAndGet(quantity);
+    }
+
+    long available() {
+        long sum = 0;
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            sum += stripes.get(stripe * PADDING);
+        }
+        return sum;
+    }
+
+    long reserved() {
+        return reserved.get();
+    }
+
+    private int home() {
+        // Fibonacci hashing of the thread id, consecutive ids land on different stripes
+        return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 40) & (stripeCount - 1);
+    }
+}
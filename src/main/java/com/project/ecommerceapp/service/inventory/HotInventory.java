@@ -0,0 +1,454 @@
+package com.project.ecommerceapp.service.inventory;
+
+import com.project.ecommerceapp.dto.HotProductDto;
+import com.project.ecommerceapp.dto.InventoryStatus;
+import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.model.InventoryCheckpoint;
+import com.project.ecommerceapp.model.InventoryLease;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.InventoryCheckpointRepository;
+import com.project.ecommerceapp.repository.InventoryLeaseRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    This class keeps the stock of hot products in memory, for flash sales where every buyer wants the same row.
+    A hot product leases its whole inventory into a HotCounter (Product.held, and the journal's InventoryLease row),
+    reservations, releases and commits are then granted with CAS on the counter and recorded in InventoryJournal
+    instead of taking the row lock.
+    Every inventory.hot.flush-interval the net change per product is written with one JDBC batch, together with the
+    journal's epoch in InventoryCheckpoint, so a segment is applied exactly once, also when it is replayed after a
+    crash. On startup the leftover segments are applied and the journal's own leases are returned, the counters start
+    over from the database.
+    Products become hot by hand (promote) or when the reservations per inventory.hot.detect-window reach
+    inventory.hot.detect-threshold, and go back to plain SQL with demote. Leases are per application instance,
+    several instances may each hold a share of the same product without overselling.
+*/
+@Slf4j
+@Component
+public class HotInventory {
+    private static final String APPLY_DELTA =
+            "update product set held = held + ?, reserved = reserved + ?, version = version + 1 where id = ?";
+    private static final String APPLY_LEASE_DELTA =
+            "update inventory_lease set quantity = quantity + ? where journal = ? and product_id = ?";
+
+    private final ProductRepository productRepository;
+    private final InventoryCheckpointRepository checkpointRepository;
+    private final InventoryLeaseRepository leaseRepository;
+    private final ProductDtoCache productDtoCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final boolean enabled;
+    private final int stripes;
+    private final Path journalDirectory;
+    private final DataSize segmentSize;
+    private final boolean journalSync;
+    private final long detectThreshold;
+
+    private final Map<Long, HotCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> reservationCounts = new ConcurrentHashMap<>();
+    // cooled down products whose lease goes back to inventory once their last journal records are written
+    private final Set<Long> pendingReturn = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private InventoryJournal journal;
+    private String journalId;
+
+    public HotInventory(ProductRepository productRepository,
+                        InventoryCheckpointRepository checkpointRepository,
+                        InventoryLeaseRepository leaseRepository,
+                        ProductDtoCache productDtoCache,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${inventory.hot.enabled:false}") boolean enabled,
+                        @Value("${inventory.hot.stripes:16}") int stripes,
+                        @Value("${inventory.hot.journal-dir:data/inventory-journal}") Path journalDirectory,
+                        @Value("${inventory.hot.journal-segment-size:16MB}") DataSize segmentSize,
+                        @Value("${inventory.hot.journal-sync:true}") boolean journalSync,
+                        @Value("${inventory.hot.detect-threshold:500}") long detectThreshold) {
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.leaseRepository = leaseRepository;
+        this.productDtoCache = productDtoCache;
+        this.jdbcTemplate = jdbcTemplate;
+        // leases and flushes commit on their own, a rolled back cart must not take them along
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.stripes = stripes;
+        this.journalDirectory = journalDirectory;
+        this.segmentSize = segmentSize;
+        this.journalSync = journalSync;
+        this.detectThreshold = detectThreshold;
+        Gauge.builder("inventory.hot.products", counters, Map::size).register(meterRegistry);
+    }
+
+    /*
+        - Applies the segments a previous run left behind and returns its leases, before any request is served.
+        - Leases of other instances sharing the database are left alone, they still back their live counters.
+    */
+    @PostConstruct
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(journalDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create inventory journal directory " + journalDirectory, e);
+        }
+        journalId = InventoryJournal.id(journalDirectory);
+        long epoch = checkpointRepository.findById(journalId)
+                .orElseGet(() -> checkpointRepository.save(new InventoryCheckpoint(journalId, 0)))
+                .getEpoch();
+        for (Path file : InventoryJournal.existing(journalDirectory)) {
+            long segmentEpoch = InventoryJournal.epoch(file);
+            write(segmentEpoch, InventoryJournal.read(file));
+            InventoryJournal.delete(file);
+            epoch = Math.max(epoch, segmentEpoch);
+        }
+        Integer returned = ownTransaction.execute(status -> {
+            List<InventoryLease> leases = leaseRepository.findByJournal(journalId);
+            leases.forEach(this::returnLease);
+            return leases.size();
+        });
+        if (returned != null && returned > 0) {
+            log.info("Returned the hot inventory leases of {} products", returned);
+        }
+        journal = new InventoryJournal(journalDirectory, Math.toIntExact(segmentSize.toBytes()), epoch + 1, journalSync);
+    }
+
+    /*
+        - Cools every hot product down on shutdown, so their leases go back to inventory right away.
+    */
+    @PreDestroy
+    public void shutdown() {
+        for (Long productId : List.copyOf(counters.keySet())) {
+            try {
+                demote(productId);
+            } catch (RuntimeException e) {
+                log.warn("Cannot cool down product {}, its lease is returned on the next start", productId, e);
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+        - Moves the product to an in-memory counter holding its current inventory, does nothing if it is hot already.
+        - Throws ResourceException if the product does not exist, IllegalStateException if hot inventory is disabled.
+    */
+    public void promote(Long productId) {
+        if (!enabled) {
+            throw new IllegalStateException("Hot inventory is disabled (inventory.hot.enabled)");
+        }
+        flushLock.lock();
+        try {
+            if (counters.containsKey(productId)) {
+                return;
+            }
+            // a lease of an earlier round must be back in inventory before the new one is taken
+            flush();
+            if (pendingReturn.contains(productId)) {
+                throw new IllegalStateException("Product " + productId + " is still cooling down");
+            }
+            HotCounter counter = ownTransaction.execute(status -> {
+                Product product = productRepository.findById(productId)
+                        .orElseThrow(() -> new ResourceException("Product Not Found"));
+                int leased = product.getInventory();
+                if (leased > 0 && !lease(productId, leased)) {
+                    // sold in between, the first reservation leases again
+                    leased = 0;
+                }
+                return new HotCounter(productId, stripes, leased, product.getReserved());
+            });
+            counters.put(productId, counter);
+            productDtoCache.invalidate(productId);
+            log.info("Product {} is hot", productId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /*
+        - Writes the product's pending changes, returns its lease to inventory and goes back to SQL statements.
+        - Buyers arriving meanwhile wait until it is done. Does nothing if the product is not hot.
+    */
+    public void demote(Long productId) {
+        flushLock.lock();
+        try {
+            HotCounter counter = counters.get(productId);
+            if (counter == null) {
+                return;
+            }
+            counter.close();
+            counters.remove(productId);
+            pendingReturn.add(productId);
+            try {
+                flush();
+            } finally {
+                counter.markDemoted();
+            }
+            log.info("Product {} cooled down", productId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public List<HotProductDto> getHotProducts() {
+        return counters.values().stream()
+                .sorted(Comparator.comparingLong(HotCounter::productId))
+                .map(counter -> new HotProductDto(counter.productId(), counter.available(), counter.reserved()))
+                .toList();
+    }
+
+    /*
+        - Writes the journal to the product table: seals the current segment, then applies the sealed ones oldest
+          first, each in one transaction with its epoch. A segment that fails stays and is retried next time.
+    */
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-interval:PT1S}")
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            journal.seal();
+            InventoryJournal.Segment segment;
+            while ((segment = journal.oldestSealed()) != null) {
+                write(segment.epoch(), segment.deltas());
+                journal.remove(segment);
+            }
+            for (Long productId : List.copyOf(pendingReturn)) {
+                ownTransaction.executeWithoutResult(status ->
+                        leaseRepository.findByJournalAndProductId(journalId, productId).ifPresent(this::returnLease));
+                pendingReturn.remove(productId);
+                productDtoCache.invalidate(productId);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(long epoch, Map<Long, long[]> deltas) {
+        ownTransaction.executeWithoutResult(status -> {
+            if (checkpointRepository.advance(journalId, epoch) == 0) {
+                // written before a crash that happened before the segment was deleted
+                return;
+            }
+            List<Object[]> rows = new ArrayList<>(deltas.size());
+            List<Object[]> leases = new ArrayList<>(deltas.size());
+            deltas.forEach((productId, delta) -> {
+                rows.add(new Object[]{delta[0], delta[1], productId});
+                leases.add(new Object[]{delta[0], journalId, productId});
+            });
+            jdbcTemplate.batchUpdate(APPLY_DELTA, rows);
+            jdbcTemplate.batchUpdate(APPLY_LEASE_DELTA, leases);
+        });
+        deltas.keySet().forEach(productDtoCache::invalidate);
+    }
+
+    // moves units from inventory to this journal's lease, false if the product has less than that left
+    private boolean lease(Long productId, int quantity) {
+        if (productRepository.leaseInventory(productId, quantity) == 0) {
+            return false;
+        }
+        if (leaseRepository.add(journalId, productId, quantity) == 0) {
+            leaseRepository.save(new InventoryLease(journalId, productId, quantity));
+        }
+        return true;
+    }
+
+    private void returnLease(InventoryLease lease) {
+        productRepository.returnHeldInventory(lease.getProductId(), lease.getQuantity());
+        leaseRepository.delete(lease);
+    }
+
+    /*
+        - Promotes the products reserved at least inventory.hot.detect-threshold times in the last window.
+    */
+    @Scheduled(fixedRateString = "${inventory.hot.detect-window:PT1S}")
+    public void detect() {
+        if (!enabled || reservationCounts.isEmpty()) {
+            return;
+        }
+        List<Long> hot = new ArrayList<>();
+        reservationCounts.forEach((productId, count) -> {
+            if (count.sum() >= detectThreshold) {
+                hot.add(productId);
+            }
+        });
+        reservationCounts.clear();
+        for (Long productId : hot) {
+            try {
+                promote(productId);
+            } catch (RuntimeException e) {
+                log.warn("Cannot promote product {}", productId, e);
+            }
+        }
+    }
+
+    // called for every reservation that went to the database
+    void recordReservation(Long productId) {
+        if (enabled && detectThreshold > 0) {
+            reservationCounts.computeIfAbsent(productId, id -> new LongAdder()).increment();
+        }
+    }
+
+    /*
+        - Opens a scope for the items of one request. Products used in it cannot cool down before it is closed,
+          so an all or nothing request can still undo its changes on the counters.
+    */
+    Scope open() {
+        return new Scope();
+    }
+
+    final class Scope implements AutoCloseable {
+        private final Map<Long, HotCounter> entered = new HashMap<>();
+        private final List<Change> applied = new ArrayList<>();
+
+        /*
+            - Applies the operation on the product's counter.
+            - Returns null if the product is not hot, the caller then uses the SQL statement.
+        */
+        InventoryStatus apply(InventoryOperation operation, Long productId, int quantity) {
+            HotCounter counter = enter(productId);
+            if (counter == null) {
+                return null;
+            }
+            if (!change(counter, operation, quantity)) {
+                return InventoryStatus.INSUFFICIENT;
+            }
+            try {
+                journal.append(productId, operation.heldDelta * quantity, operation.reservedDelta * quantity);
+            } catch (RuntimeException e) {
+                revert(counter, operation, quantity);
+                throw e;
+            }
+            applied.add(new Change(operation, productId, quantity));
+            return InventoryStatus.APPLIED;
+        }
+
+        // reverts everything applied in this scope, newest first
+        void undo() {
+            for (int i = applied.size() - 1; i >= 0; i--) {
+                Change change = applied.get(i);
+                int quantity = change.quantity();
+                revert(entered.get(change.productId()), change.operation(), quantity);
+                journal.append(change.productId(), -change.operation().heldDelta * quantity, -change.operation().reservedDelta * quantity);
+            }
+            applied.clear();
+        }
+
+        private HotCounter enter(Long productId) {
+            HotCounter counter = entered.get(productId);
+            if (counter != null) {
+                return counter;
+            }
+            counter = counters.get(productId);
+            if (counter == null) {
+                return null;
+            }
+            if (!counter.enter()) {
+                counter.awaitDemoted();
+                return null;
+            }
+            entered.put(productId, counter);
+            return counter;
+        }
+
+        @Override
+        public void close() {
+            entered.values().forEach(HotCounter::exit);
+        }
+    }
+
+    private record Change(InventoryOperation operation, Long productId, int quantity) {
+    }
+
+    private boolean change(HotCounter counter, InventoryOperation operation, int quantity) {
+        return switch (operation) {
+            case RESERVE -> {
+                if (!take(counter, quantity)) {
+                    yield false;
+                }
+                counter.addReserved(quantity);
+                yield true;
+            }
+            case RELEASE -> {
+                if (!counter.unreserve(quantity)) {
+                    yield false;
+                }
+                counter.put(quantity);
+                yield true;
+            }
+            case COMMIT -> counter.unreserve(quantity);
+        };
+    }
+
+    private void revert(HotCounter counter, InventoryOperation operation, int quantity) {
+        switch (operation) {
+            case RESERVE -> {
+                counter.addReserved(-quantity);
+                counter.put(quantity);
+            }
+            case RELEASE -> {
+                counter.forceTake(quantity);
+                counter.addReserved(quantity);
+            }
+            case COMMIT -> counter.addReserved(quantity);
+        }
+    }
+
+    // takes from the counter, leasing what the database has left when the counter runs dry
+    private boolean take(HotCounter counter, int quantity) {
+        if (counter.take(quantity)) {
+            return true;
+        }
+        counter.refillLock().lock();
+        try {
+            if (counter.take(quantity)) {
+                return true;
+            }
+            int stock = productRepository.findInventoryById(counter.productId()).orElse(0);
+            Integer leased = stock <= 0 ? 0 : ownTransaction.execute(status ->
+                    lease(counter.productId(), stock) ? stock : 0);
+            if (leased == null || leased == 0) {
+                return false;
+            }
+            counter.put(leased);
+            return counter.take(quantity);
+        } finally {
+            counter.refillLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.project.ecommerceapp.service.inventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/*
+    Append-only journal of the hot inventory changes that are not yet in the product table.
+    Segments are memory-mapped files of fixed 16 byte records (product id, held delta, reserved delta). A writer claims
+    its slot with one atomic add and fills it without a lock, the product id is written last so a slot that was claimed
+    but never filled reads as empty. With sync on, append returns only once its record is forced to disk, concurrent
+    writers share one force (group commit), so nothing acknowledged is lost even when the machine crashes. With sync
+    off the pages belong to the operating system once written: a crash of the application loses nothing that was
+    acknowledged, a crash of the machine may lose the records of the segment that was still being written.
+    Segments are sealed and applied to the database in epoch order, then deleted.
+*/
+final class InventoryJournal {
+    static final int RECORD_BYTES = 16;
+    private static final String PREFIX = "inventory-";
+    private static final String SUFFIX = ".journal";
+    private static final String ID_FILE = "journal.id";
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean sync;
+    private final ReentrantLock rotation = new ReentrantLock();
+    private final Queue<Segment> sealed = new ConcurrentLinkedQueue<>();
+    private volatile Segment current;
+    private long nextEpoch;
+
+    InventoryJournal(Path directory, int segmentBytes, long firstEpoch, boolean sync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+        this.sync = sync;
+        this.nextEpoch = firstEpoch;
+        this.current = open();
+    }
+
+    void append(long productId, int heldDelta, int reservedDelta) {
+        while (true) {
+            Segment segment = current;
+            boolean written = false;
+            segment.writers.incrementAndGet();
+            try {
+                // a segment sealed in between may already be read, the record must go to its successor
+                if (segment != current) {
+                    continue;
+                }
+                int position = segment.next.getAndAdd(RECORD_BYTES);
+                if (position <= segmentBytes - RECORD_BYTES) {
+                    segment.buffer.putInt(position + 8, heldDelta);
+                    segment.buffer.putInt(position + 12, reservedDelta);
+                    LONGS.setRelease(segment.buffer, position, productId);
+                    written = true;
+                }
+            } finally {
+                segment.writers.decrementAndGet();
+            }
+            if (written) {
+                // outside the writer count, a force must not hold up sealing the segment
+                if (sync) {
+                    segment.force();
+                }
+                return;
+            }
+            seal(segment);
+        }
+    }
+
+    // seals the current segment if it has records, appends go to a fresh one from then on
+    void seal() {
+        seal(current);
+    }
+
+    private void seal(Segment segment) {
+        rotation.lock();
+        try {
+            if (segment != current || segment.next.get() == 0) {
+                return;
+            }
+            current = open();
+            while (segment.writers.get() != 0) {
+                Thread.yield();
+            }
+            sealed.add(segment);
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    // oldest sealed segment not yet applied, stays until removed
+    Segment oldestSealed() {
+        return sealed.peek();
+    }
+
+    void remove(Segment segment) {
+        sealed.remove(segment);
+        delete(segment.file);
+    }
+
+    private Segment open() {
+        Path file = directory.resolve(PREFIX + "%020d".formatted(nextEpoch) + SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segment segment = new Segment(nextEpoch, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+            nextEpoch++;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create inventory journal " + file, e);
+        }
+    }
+
+    // identifies the journal in InventoryCheckpoint, created with the directory and kept as long as it exists
+    static String id(Path directory) {
+        Path file = directory.resolve(ID_FILE);
+        try {
+            if (Files.notExists(file)) {
+                Files.writeString(file, UUID.randomUUID().toString(), StandardOpenOption.CREATE_NEW);
+            }
+            return Files.readString(file).trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read inventory journal id " + file, e);
+        }
+    }
+
+    // segments left behind by a previous run, oldest first
+    static List<Path> existing(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches(PREFIX + "\\d+" + "\\" + SUFFIX))
+                    .sorted(Comparator.comparingLong(InventoryJournal::epoch))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list inventory journal " + directory, e);
+        }
+    }
+
+    static long epoch(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // net held and reserved change per product of a segment file left behind by a previous run
+    static Map<Long, long[]> read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), (int) channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read inventory journal " + file, e);
+        }
+    }
+
+    private static Map<Long, long[]> read(MappedByteBuffer buffer, int limit) {
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (int position = 0; position <= limit - RECORD_BYTES; position += RECORD_BYTES) {
+            long productId = (long) LONGS.getAcquire(buffer, position);
+            if (productId == 0) {
+                continue;
+            }
+            long[] delta = deltas.computeIfAbsent(productId, id -> new long[2]);
+            delta[0] += buffer.getInt(position + 8);
+            delta[1] += buffer.getInt(position + 12);
+        }
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+        return deltas;
+    }
+
+    static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete inventory journal " + file, e);
+        }
+    }
+
+    final class Segment {
+        private final long epoch;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger writers = new AtomicInteger();
+        private final ReentrantLock forceLock = new ReentrantLock();
+        private final AtomicLong forcesStarted = new AtomicLong();
+        private volatile long forcesCompleted;
+
+        private Segment(long epoch, Path file, MappedByteBuffer buffer) {
+            this.epoch = epoch;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        long epoch() {
+            return epoch;
+        }
+
+        Map<Long, long[]> deltas() {
+            return read(buffer, Math.min(next.get(), segmentBytes));
+        }
+
+        // returns once a force that started after the caller's record was written has completed,
+        // writers queued behind a running force are covered by the next one instead of forcing one by one
+        private void force() {
+            long needed = forcesStarted.get() + 1;
+            forceLock.lock();
+            try {
+                if (forcesCompleted >= needed) {
+                    return;
+                }
+                long started = forcesStarted.incrementAndGet();
+                buffer.force(0, Math.min(next.get(), segmentBytes));
+                forcesCompleted = started;
+            } finally {
+                forceLock.unlock();
+            }
+        }
+    }
+}
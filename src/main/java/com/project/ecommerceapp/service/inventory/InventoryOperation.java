@@ -0,0 +1,18 @@
+package com.project.ecommerceapp.service.inventory;
+
+/*
+    The three stock movements, as signed changes of the held and reserved units of a hot product per unit of quantity.
+*/
+enum InventoryOperation {
+    RESERVE(-1, 1),
+    RELEASE(1, -1),
+    COMMIT(0, -1);
+
+    final int heldDelta;
+    final int reservedDelta;
+
+    InventoryOperation(int heldDelta, int reservedDelta) {
+        this.heldDelta = heldDelta;
+        this.reservedDelta = reservedDelta;
+    }
+}
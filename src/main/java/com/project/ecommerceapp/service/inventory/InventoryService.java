@@ -0,0 +1,16 @@
+package com.project.ecommerceapp.service.inventory;
+
+import com.project.ecommerceapp.dto.HotProductDto;
+import com.project.ecommerceapp.dto.InventoryResult;
+import com.project.ecommerceapp.request.InventoryRequest;
+
+import java.util.List;
+
+public interface InventoryService {
+    InventoryResult reserve(InventoryRequest request);
+    InventoryResult release(InventoryRequest request);
+    InventoryResult commit(InventoryRequest request);
+    void promote(Long productId);
+    void demote(Long productId);
+    List<HotProductDto> getHotProducts();
+}
@@ -0,0 +1,165 @@
+package com.project.ecommerceapp.service.inventory;
+
+import com.project.ecommerceapp.dto.HotProductDto;
+import com.project.ecommerceapp.dto.InventoryItemResult;
+import com.project.ecommerceapp.dto.InventoryResult;
+import com.project.ecommerceapp.dto.InventoryStatus;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.InventoryItem;
+import com.project.ecommerceapp.request.InventoryRequest;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToIntBiFunction;
+
+/*
+    This class moves product stock between inventory and reserved for checkout.
+    Every item is one conditional UPDATE in ProductRepository, the product entity is never loaded, so concurrent carts
+    cannot oversell and do not contend on anything but the product row for the duration of one statement.
+    Items are applied in product id order, two carts sharing products therefore lock their rows in the same order.
+    Hot products (HotInventory) skip the statement, their items are granted on the in-memory counter instead.
+*/
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements InventoryService {
+    private final ProductRepository productRepository;
+    private final ProductDtoCache productDtoCache;
+    private final TransactionTemplate transactionTemplate;
+    private final HotInventory hotInventory;
+
+    /*
+        - Takes units out of inventory into reserved, for each item that has enough in stock.
+        - request : Items of one cart, the same product may appear more than once. allOrNothing applies all or none.
+        - Returns the outcome per product, will throw IllegalArgumentException for a missing id or quantity below 1.
+    */
+    @Override
+    public InventoryResult reserve(InventoryRequest request) {
+        return apply(request, InventoryOperation.RESERVE, productRepository::reserveInventory);
+    }
+
+    /*
+        - Puts reserved units back into inventory, for an abandoned or expired cart.
+        - request, returns : Same as reserve.
+    */
+    @Override
+    public InventoryResult release(InventoryRequest request) {
+        return apply(request, InventoryOperation.RELEASE, productRepository::releaseInventory);
+    }
+
+    /*
+        - Removes reserved units for good, once the order is paid.
+        - request, returns : Same as reserve.
+    */
+    @Override
+    public InventoryResult commit(InventoryRequest request) {
+        return apply(request, InventoryOperation.COMMIT, productRepository::commitInventory);
+    }
+
+    /*
+        - Keeps the product's stock in memory until demoted, see HotInventory.
+        - Throws ResourceException if the product does not exist, IllegalStateException if inventory.hot.enabled is off.
+    */
+    @Override
+    public void promote(Long productId) {
+        hotInventory.promote(productId);
+    }
+
+    /*
+        - Writes the product's pending changes and goes back to one statement per item.
+    */
+    @Override
+    public void demote(Long productId) {
+        hotInventory.demote(productId);
+    }
+
+    @Override
+    public List<HotProductDto> getHotProducts() {
+        return hotInventory.getHotProducts();
+    }
+
+    private InventoryResult apply(InventoryRequest request, InventoryOperation operation, ToIntBiFunction<Long, Integer> statement) {
+        Map<Long, Integer> quantities = merge(request.getItems());
+        List<InventoryItemResult> results = new ArrayList<>(quantities.size());
+        if (request.isAllOrNothing()) {
+            // one transaction, rolled back on the first failed item, together with the changes on hot counters
+            try (HotInventory.Scope hot = hotInventory.open()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+                            InventoryStatus outcome = applyItem(hot, operation, item.getKey(), item.getValue(), statement);
+                            results.add(new InventoryItemResult(item.getKey(), item.getValue(), outcome));
+                            if (outcome != InventoryStatus.APPLIED) {
+                                status.setRollbackOnly();
+                                hot.undo();
+                                break;
+                            }
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    hot.undo();
+                    throw e;
+                }
+            }
+            boolean success = results.stream().allMatch(result -> result.getStatus() == InventoryStatus.APPLIED);
+            if (!success) {
+                results.stream()
+                        .filter(result -> result.getStatus() == InventoryStatus.APPLIED)
+                        .forEach(result -> result.setStatus(InventoryStatus.ROLLED_BACK));
+                // items after the failed one were never tried
+                quantities.keySet().stream().skip(results.size())
+                        .forEach(id -> results.add(new InventoryItemResult(id, quantities.get(id), InventoryStatus.ROLLED_BACK)));
+                return new InventoryResult(false, results);
+            }
+            quantities.keySet().forEach(productDtoCache::invalidate);
+            return new InventoryResult(true, results);
+        }
+        // every item in its own short transaction, a failed item does not hold the locks of the others
+        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+            InventoryStatus outcome;
+            try (HotInventory.Scope hot = hotInventory.open()) {
+                outcome = transactionTemplate.execute(status -> applyItem(hot, operation, item.getKey(), item.getValue(), statement));
+            }
+            if (outcome == InventoryStatus.APPLIED) {
+                productDtoCache.invalidate(item.getKey());
+            }
+            results.add(new InventoryItemResult(item.getKey(), item.getValue(), outcome));
+        }
+        boolean success = results.stream().allMatch(result -> result.getStatus() == InventoryStatus.APPLIED);
+        return new InventoryResult(success, results);
+    }
+
+    private InventoryStatus applyItem(HotInventory.Scope hot, InventoryOperation operation, Long productId, int quantity,
+                                      ToIntBiFunction<Long, Integer> statement) {
+        InventoryStatus outcome = hot.apply(operation, productId, quantity);
+        if (outcome != null) {
+            return outcome;
+        }
+        if (operation == InventoryOperation.RESERVE) {
+            hotInventory.recordReservation(productId);
+        }
+        if (statement.applyAsInt(productId, quantity) == 1) {
+            return InventoryStatus.APPLIED;
+        }
+        return productRepository.existsById(productId) ? InventoryStatus.INSUFFICIENT : InventoryStatus.NOT_FOUND;
+    }
+
+    private static Map<Long, Integer> merge(List<InventoryItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No items");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (InventoryItem item : items) {
+            if (item.getProductId() == null || item.getQuantity() < 1) {
+                throw new IllegalArgumentException("Every item needs a productId and a quantity of at least 1");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+        }
+        return quantities;
+    }
+}
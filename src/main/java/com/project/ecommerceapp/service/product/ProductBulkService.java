@@ -0,0 +1,10 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.BulkResult;
+import com.project.ecommerceapp.request.BulkDeleteRequest;
+import com.project.ecommerceapp.request.BulkUpdateRequest;
+
+public interface ProductBulkService {
+    BulkResult deleteProducts(BulkDeleteRequest request);
+    BulkResult updateProducts(BulkUpdateRequest request);
+}
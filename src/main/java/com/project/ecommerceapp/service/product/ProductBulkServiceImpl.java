@@ -0,0 +1,171 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.BulkResult;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.BulkDeleteRequest;
+import com.project.ecommerceapp.request.BulkUpdateRequest;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.image.ImageContentCollector;
+import com.project.ecommerceapp.service.search.ProductSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.project.ecommerceapp.repository.ProductSpecifications.*;
+
+/*
+    This class deletes and adjusts many products at once without loading them.
+    The matching ids are selected with one scalar query, then every chunk of product.bulk.chunk-size ids costs one
+    delete of the image rows and one delete of the product rows, or one update, all in a single transaction.
+    A price change also reads the chunk back so the search index gets the new prices after the commit.
+    The image content of deleted rows is handed to ImageContentCollector after the commit.
+*/
+@Service
+@RequiredArgsConstructor
+public class ProductBulkServiceImpl implements ProductBulkService {
+    private final ProductRepository productRepository;
+    private final ImageRepository imageRepository;
+    private final ImageContentCollector imageContentCollector;
+    private final ProductDtoCache productDtoCache;
+    private final ProductSearchService productSearchService;
+    private final CatalogVersion catalogVersion;
+    private final ChangeFeedService changeFeedService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${product.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    /*
+        - Deletes the selected products together with their images.
+        - request : ids, brand and/or category, at least one of them.
+        - Returns the number of deleted products and images, will throw IllegalArgumentException without criteria.
+    */
+    @Override
+    public BulkResult deleteProducts(BulkDeleteRequest request) {
+        Specification<Product> spec = select(request.getIds(), request.getBrand(), request.getCategory(), null, null, null);
+        List<Long> deleted = new ArrayList<>();
+        Set<String> storageKeys = new HashSet<>();
+        BulkResult result = transactionTemplate.execute(status -> {
+            long products = 0;
+            long images = 0;
+            List<Long> ids = productRepository.findIds(spec);
+            for (List<Long> chunk : chunks(ids)) {
+                storageKeys.addAll(imageRepository.findStorageKeysByProductIdIn(chunk));
+                changeFeedService.recordImagesOfProducts(chunk, ChangeOp.DELETE);
+                changeFeedService.recordProducts(chunk, ChangeOp.DELETE);
+                images += imageRepository.deleteByProductIdIn(chunk);
+                products += productRepository.deleteByIdIn(chunk);
+            }
+            invalidate(ids);
+            deleted.addAll(ids);
+            return new BulkResult(products, images);
+        });
+        deleted.forEach(productSearchService::remove);
+        imageContentCollector.release(storageKeys);
+        return result;
+    }
+
+    /*
+        - Changes price and/or inventory of the selected products.
+        - request : Selection (ids, brand, category, name, price range, at least one of them) and adjustments
+          (pricePercent, priceDelta, inventory or inventoryDelta, at least one of them).
+        - Returns the number of updated products, will throw IllegalArgumentException without criteria or adjustment.
+        - Repriced products are re-indexed for search once the transaction commits.
+    */
+    @Override
+    public BulkResult updateProducts(BulkUpdateRequest request) {
+        if (request.getPricePercent() == null && request.getPriceDelta() == null
+                && request.getInventory() == null && request.getInventoryDelta() == null) {
+            throw new IllegalArgumentException("Set pricePercent, priceDelta, inventory or inventoryDelta");
+        }
+        if (request.getInventory() != null && request.getInventoryDelta() != null) {
+            throw new IllegalArgumentException("Set either inventory or inventoryDelta");
+        }
+        if (request.getInventory() != null && request.getInventory() < 0) {
+            throw new IllegalArgumentException("Inventory must not be negative");
+        }
+        Specification<Product> spec = select(request.getIds(), request.getBrand(), request.getCategory(),
+                request.getName(), request.getMinPrice(), request.getMaxPrice());
+        BigDecimal priceFactor = request.getPricePercent() == null ? null
+                : BigDecimal.ONE.add(request.getPricePercent().divide(BigDecimal.valueOf(100), MathContext.DECIMAL64));
+        // search hits carry the price, inventory is not indexed
+        boolean reprice = priceFactor != null || request.getPriceDelta() != null;
+        Long updated = transactionTemplate.execute(status -> {
+            long products = 0;
+            List<Long> ids = productRepository.findIds(spec);
+            for (List<Long> chunk : chunks(ids)) {
+                products += productRepository.adjust(chunk, priceFactor, request.getPriceDelta(),
+                        request.getInventory(), request.getInventoryDelta());
+                changeFeedService.recordProducts(chunk, ChangeOp.UPSERT);
+                if (reprice) {
+                    // read back on the primary inside the transaction, indexed once it commits
+                    productRepository.findAllById(chunk).forEach(productSearchService::index);
+                }
+            }
+            invalidate(ids);
+            return products;
+        });
+        return new BulkResult(updated == null ? 0 : updated, 0);
+    }
+
+    // an empty selection would match the whole catalog, that is never what a bulk request means
+    private static Specification<Product> select(List<Long> ids, String brand, String category, String name,
+                                                 BigDecimal minPrice, BigDecimal maxPrice) {
+        List<Specification<Product>> filters = new ArrayList<>();
+        if (ids != null) {
+            filters.add(idIn(ids.isEmpty() ? List.of(-1L) : ids));
+        }
+        if (brand != null) {
+            filters.add(hasBrand(brand));
+        }
+        if (category != null) {
+            filters.add(hasCategory(category));
+        }
+        if (name != null) {
+            filters.add(hasName(name));
+        }
+        if (minPrice != null) {
+            filters.add(priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add(priceAtMost(maxPrice));
+        }
+        if (filters.isEmpty()) {
+            throw new IllegalArgumentException("Select the products by ids, brand, category, name or price");
+        }
+        return Specification.allOf(filters);
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    // after commit, one entry per product while that is cheaper than dropping the cache
+    private void invalidate(List<Long> ids) {
+        if (ids.size() > chunkSize) {
+            productDtoCache.invalidateAll();
+        } else {
+            ids.forEach(productDtoCache::invalidate);
+        }
+        if (!ids.isEmpty()) {
+            catalogVersion.bump();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.ecommerceapp.service.product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+    Opaque keyset cursor for product listings.
+    The cursor wraps the id of the last product returned, so the next page is read as "id > cursor",
+    which stays a bounded index range scan no matter how deep the client pages.
+*/
+final class ProductCursor {
+    private static final String PREFIX = "p:";
+
+    private ProductCursor() {
+    }
+
+    /*
+        - Encodes the id of the last product on a page.
+        - Returns null when there is no next page.
+    */
+    static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /*
+        - Decodes an "after" token back to the product id it points past.
+        - A missing token starts from the beginning of the listing.
+        - Throw IllegalArgumentException when the token was not produced by encode.
+    */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
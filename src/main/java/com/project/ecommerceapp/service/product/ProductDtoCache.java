@@ -0,0 +1,142 @@
+package com.project.ecommerceapp.service.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.project.ecommerceapp.config.ReadWriteRoutingDataSource;
+import com.project.ecommerceapp.dto.CacheStatsDto;
+import com.project.ecommerceapp.dto.ProductDto;
+import com.project.ecommerceapp.mapper.ProductMapper;
+import com.project.ecommerceapp.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static com.project.ecommerceapp.service.TransactionHooks.afterCommit;
+
+/*
+    Bounded read-through id -> ProductDto cache for GET /product/id/{id} and the existence checks of the image paths.
+    Caffeine evicts by W-TinyLFU once max-size is reached, and concurrent misses on one id share a single load,
+    so a hot product that just expired costs the database one select, not one per waiting request.
+    Entries are invalidated after the writing transaction commits, a load running at the same time can therefore
+    never put back the state from before the write. The TTL only bounds staleness from writes made elsewhere.
+    Cached dtos are shared between requests and must not be modified.
+    With a read replica loads use it too, except for products invalidated within the replication lag
+    (spring.datasource.replica.read-your-writes): the replica may not have their write yet, they load from the primary.
+*/
+@Component
+public class ProductDtoCache {
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    private final LoadingCache<Long, ProductDto> byId;
+    // ids invalidated within the replica lag, and when everything was
+    private final Cache<Long, Boolean> recentlyWritten;
+    private final long replicaLag;
+    private final String apiPrefix;
+    private volatile long allWrittenAt;
+
+    public ProductDtoCache(ProductRepository productRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${product.cache.max-size:10000}") long maxSize,
+                           @Value("${product.cache.ttl:5m}") Duration ttl,
+                           @Value("${spring.datasource.replica.url:}") String replicaUrl,
+                           @Value("${spring.datasource.replica.read-your-writes:PT5S}") Duration replicaLag,
+                           @Value("${api.prefix}") String apiPrefix,
+                           MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.apiPrefix = apiPrefix;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "product");
+        this.replicaLag = replicaUrl.isEmpty() ? 0 : replicaLag.toNanos();
+        this.recentlyWritten = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofNanos(this.replicaLag))
+                .build();
+        this.allWrittenAt = System.nanoTime() - this.replicaLag;
+    }
+
+    /*
+        - Returns the product dto with that id, loading it on a miss.
+        - Returns null if no such product exists, misses are not cached.
+    */
+    public ProductDto get(Long id) {
+        return byId.get(id);
+    }
+
+    /*
+        - Returns the ETag of a product: from its cached dto, or else from one scalar query of its and its category's
+          version, the product and its images are not loaded.
+        - Returns null if no such product exists.
+    */
+    public String etag(Long id) {
+        ProductDto cached = byId.policy().getIfPresentQuietly(id);
+        if (cached != null) {
+            return etag(cached);
+        }
+        return fromReplicaUnlessWritten(id, () -> readOnly.execute(status -> productRepository.findVersionById(id)
+                .map(version -> etag(version.getVersion(), version.getCategoryVersion()))
+                .orElse(null)));
+    }
+
+    public static String etag(ProductDto product) {
+        return etag(product.getVersion(), product.getCategory() == null ? null : product.getCategory().getVersion());
+    }
+
+    // the product's own version, the category's for its name in the dto
+    private static String etag(long version, Long categoryVersion) {
+        return "W/\"" + version + (categoryVersion == null ? "" : "." + categoryVersion) + "\"";
+    }
+
+    public void invalidate(Long id) {
+        if (id != null) {
+            afterCommit(() -> {
+                // marked first, a load starting after the invalidation must find the mark
+                recentlyWritten.put(id, Boolean.TRUE);
+                byId.invalidate(id);
+            });
+        }
+    }
+
+    // a category rename changes every product of that category, renames are rare enough to just start over
+    public void invalidateAll() {
+        afterCommit(() -> {
+            allWrittenAt = System.nanoTime();
+            byId.invalidateAll();
+        });
+    }
+
+    public CacheStatsDto stats() {
+        return CacheStatsDto.of(byId.stats(), byId.estimatedSize());
+    }
+
+    // the images are mapped too, so the product and its images are read in one short transaction.
+    // Recently written ones from the primary, a lagging replica would put back the state the write just replaced
+    private ProductDto load(Long id) {
+        return fromReplicaUnlessWritten(id, () -> read(id));
+    }
+
+    private <T> T fromReplicaUnlessWritten(Long id, Supplier<T> read) {
+        if (replicaLag > 0 && (recentlyWritten.getIfPresent(id) != null || System.nanoTime() - allWrittenAt < replicaLag)) {
+            return ReadWriteRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+
+    private ProductDto read(Long id) {
+        return readOnly.execute(status -> productRepository.findById(id)
+                .map(product -> ProductMapper.INSTANCE.producToProductDto(product, apiPrefix))
+                .orElse(null));
+    }
+}
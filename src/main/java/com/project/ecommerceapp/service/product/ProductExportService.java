@@ -0,0 +1,9 @@
+package com.project.ecommerceapp.service.product;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+    void exportNdjson(OutputStream out) throws IOException;
+    void exportCsv(OutputStream out) throws IOException;
+}
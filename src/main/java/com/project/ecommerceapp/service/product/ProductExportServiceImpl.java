@@ -0,0 +1,128 @@
+package com.project.ecommerceapp.service.product;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+    This class streams the whole catalog to an output stream for downstream feeds.
+    Products are read through a database cursor (ProductRepository.streamAllBy) and written one row at a time,
+    and the persistence context is cleared after every fetch, so memory use does not depend on the catalog size.
+*/
+@Service
+@RequiredArgsConstructor
+public class ProductExportServiceImpl implements ProductExportService {
+    private static final String CSV_HEADER = "id,name,brand,price,inventory,description,category";
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /*
+        - Writes every product as one JSON object per line (NDJSON).
+        - out : The response stream, it is flushed after every fetch but not closed.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            int rows = 0;
+            for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+                Product product = it.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", product.getId());
+                generator.writeStringField("name", product.getName());
+                generator.writeStringField("brand", product.getBrand());
+                generator.writeNumberField("price", product.getPrice());
+                generator.writeNumberField("inventory", product.getAvailable());
+                generator.writeStringField("description", product.getDescription());
+                generator.writeStringField("category", categoryName(product));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows % ProductRepository.STREAM_FETCH_SIZE == 0) {
+                    release(generator);
+                }
+            }
+        }
+        generator.flush();
+    }
+
+    /*
+        - Writes every product as a CSV row, with a header line first.
+        - out : The response stream, it is flushed after every fetch but not closed.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            int rows = 0;
+            for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+                Product product = it.next();
+                writer.write(String.valueOf(product.getId()));
+                writer.write(',');
+                writer.write(csv(product.getName()));
+                writer.write(',');
+                writer.write(csv(product.getBrand()));
+                writer.write(',');
+                writer.write(product.getPrice() == null ? "" : product.getPrice().toPlainString());
+                writer.write(',');
+                writer.write(String.valueOf(product.getAvailable()));
+                writer.write(',');
+                writer.write(csv(product.getDescription()));
+                writer.write(',');
+                writer.write(csv(categoryName(product)));
+                writer.write('\n');
+                if (++rows % ProductRepository.STREAM_FETCH_SIZE == 0) {
+                    release(writer);
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    // push what was written so far to the client and drop the rows already sent from the persistence context
+    private void release(Flushable output) {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        entityManager.clear();
+    }
+
+    private static String categoryName(Product product) {
+        return product.getCategory() == null ? null : product.getCategory().getName();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
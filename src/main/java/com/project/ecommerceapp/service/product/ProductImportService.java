@@ -0,0 +1,11 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ImportResult importJson(InputStream content) throws IOException;
+    ImportResult importCsv(InputStream content) throws IOException;
+}
@@ -0,0 +1,277 @@
+package com.project.ecommerceapp.service.product;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerceapp.dto.ImportResult;
+import com.project.ecommerceapp.dto.ImportRowError;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.AddProductRequest;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.search.ProductSearchService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    This class loads large supplier catalogs.
+    Rows are read from the request stream one at a time and persisted in chunks of product.import.chunk-size,
+    each chunk in its own transaction, so a bad row only costs its own chunk a retry and never the whole load.
+    Categories are resolved once per distinct name for the whole import, and the product inserts go out as JDBC batches.
+*/
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final List<String> CSV_COLUMNS = List.of("name", "brand", "price", "inventory", "description", "category");
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductSearchService productSearchService;
+    private final CatalogVersion catalogVersion;
+    private final ChangeFeedService changeFeedService;
+
+    @Value("${product.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    /*
+        - Imports a JSON array of AddProductRequest objects.
+        - content : Request body, parsed element by element.
+        - Returns the number of imported rows and the errors of rejected rows (row numbers start at 1).
+        - An element that does not map to a product is rejected like an invalid CSV row. Malformed JSON rejects its
+          row and ends the import there, the rows before it are kept.
+    */
+    @Override
+    public ImportResult importJson(InputStream content) throws IOException {
+        Import run = new Import();
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products");
+            }
+            long row = 1;
+            try {
+                for (; parser.nextToken() != JsonToken.END_ARRAY; row++) {
+                    // read whole before mapping, so a mismatch leaves the parser at the next element
+                    JsonNode element = objectMapper.readTree(parser);
+                    try {
+                        run.add(row, objectMapper.treeToValue(element, AddProductRequest.class));
+                    } catch (JsonProcessingException e) {
+                        run.reject(row, e.getOriginalMessage());
+                    }
+                }
+            } catch (JsonParseException e) {
+                // nothing after a syntax error can be read
+                run.reject(row, e.getOriginalMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    /*
+        - Imports CSV with a header line naming the columns name, brand, price, inventory, description, category.
+        - content : Request body in UTF-8, parsed line by line.
+        - Returns the number of imported rows and the errors of rejected rows (row numbers start at 1, after the header).
+    */
+    @Override
+    public ImportResult importCsv(InputStream content) throws IOException {
+        Import run = new Import();
+        CsvRowReader reader = new CsvRowReader(new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return run.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain " + CSV_COLUMNS);
+        }
+        long row = 0;
+        for (List<String> fields = reader.next(); fields != null; fields = reader.next()) {
+            row++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                run.add(row, fromCsv(fields, columns));
+            } catch (RuntimeException e) {
+                run.reject(row, e.getMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    private static AddProductRequest fromCsv(List<String> fields, Map<String, Integer> columns) {
+        AddProductRequest request = new AddProductRequest();
+        request.setName(field(fields, columns, "name"));
+        request.setBrand(field(fields, columns, "brand"));
+        String price = field(fields, columns, "price");
+        request.setPrice(price == null ? null : new BigDecimal(price.trim()));
+        String inventory = field(fields, columns, "inventory");
+        request.setInventory(inventory == null ? 0 : Integer.parseInt(inventory.trim()));
+        request.setDescription(field(fields, columns, "description"));
+        String category = field(fields, columns, "category");
+        request.setCategory(category == null ? null : new Category(category));
+        return request;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        int index = columns.get(name);
+        if (index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static String validate(AddProductRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name is required";
+        }
+        if (request.getCategory() == null || request.getCategory().getName() == null || request.getCategory().getName().isBlank()) {
+            return "category is required";
+        }
+        if (request.getPrice() == null || request.getPrice().signum() < 0) {
+            return "price must be zero or more";
+        }
+        if (request.getInventory() < 0) {
+            return "inventory must be zero or more";
+        }
+        return null;
+    }
+
+    /*
+        State of one import: the current chunk, the category ids resolved so far and the result.
+    */
+    private class Import {
+        private final ImportResult result = new ImportResult();
+        private final Map<String, Long> categoryIds = new HashMap<>();
+        private final List<Long> rows = new ArrayList<>();
+        private final List<AddProductRequest> chunk = new ArrayList<>();
+
+        void add(long row, AddProductRequest request) {
+            String error = validate(request);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+            rows.add(row);
+            chunk.add(request);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new ImportRowError(row, message));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            return result;
+        }
+
+        // the whole chunk is tried at once, if it fails the rows are retried one by one to find the bad ones
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                persist(chunk);
+                result.setImported(result.getImported() + chunk.size());
+            } catch (RuntimeException chunkFailure) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        persist(List.of(chunk.get(i)));
+                        result.setImported(result.getImported() + 1);
+                    } catch (RuntimeException e) {
+                        reject(rows.get(i), e.getMessage());
+                    }
+                }
+            }
+            rows.clear();
+            chunk.clear();
+        }
+
+        private void persist(List<AddProductRequest> requests) {
+            Map<String, Long> created = new HashMap<>();
+            List<Product> products = new ArrayList<>(requests.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                created.putAll(resolveCategories(requests));
+                for (AddProductRequest request : requests) {
+                    String name = request.getCategory().getName();
+                    Long categoryId = categoryIds.containsKey(name) ? categoryIds.get(name) : created.get(name);
+                    products.add(new Product(request.getName(), request.getBrand(), request.getPrice(),
+                            request.getInventory(), request.getDescription(),
+                            entityManager.getReference(Category.class, categoryId)));
+                }
+                productRepository.saveAll(products);
+                entityManager.flush();
+                changeFeedService.recordProducts(products.stream().map(Product::getId).toList(), ChangeOp.UPSERT);
+                entityManager.clear();
+            });
+            // only categories of committed chunks are remembered, a rolled back chunk did not create them
+            categoryIds.putAll(created);
+            products.forEach(productSearchService::index);
+            catalogVersion.bump();
+        }
+
+        // one select for the names not seen yet in this import, one batched insert for the missing ones
+        private Map<String, Long> resolveCategories(List<AddProductRequest> requests) {
+            Set<String> unknown = new HashSet<>();
+            for (AddProductRequest request : requests) {
+                if (!categoryIds.containsKey(request.getCategory().getName())) {
+                    unknown.add(request.getCategory().getName());
+                }
+            }
+            Map<String, Long> resolved = new HashMap<>();
+            if (unknown.isEmpty()) {
+                return resolved;
+            }
+            for (Category category : categoryRepository.findByNameIn(unknown)) {
+                resolved.put(category.getName(), category.getId());
+            }
+            List<Category> missing = unknown.stream()
+                    .filter(name -> !resolved.containsKey(name))
+                    .map(Category::new)
+                    .toList();
+            for (Category category : categoryRepository.saveAll(missing)) {
+                resolved.put(category.getName(), category.getId());
+                changeFeedService.record(ChangeType.CATEGORY, category.getId(), ChangeOp.UPSERT, null);
+            }
+            return resolved;
+        }
+    }
+}
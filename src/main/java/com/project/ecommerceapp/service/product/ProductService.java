@@ -1,8 +1,12 @@
 package com.project.ecommerceapp.service.product;
 
+import com.project.ecommerceapp.dto.CacheStatsDto;
+import com.project.ecommerceapp.dto.CursorPage;
+import com.project.ecommerceapp.dto.FacetedPage;
 import com.project.ecommerceapp.dto.ProductDto;
 import com.project.ecommerceapp.model.Product;
 import com.project.ecommerceapp.request.AddProductRequest;
+import com.project.ecommerceapp.request.ProductFilterRequest;
 import com.project.ecommerceapp.request.UpdateProductRequest;
 
 import java.util.List;
@@ -10,6 +14,10 @@ import java.util.List;
 public interface ProductService {
     Product addProduct(AddProductRequest product);
     Product getProductById(Long id);
+    ProductDto getProductDtoById(Long id);
+    String getProductETag(Long id);
+    String getProductETag(ProductDto product);
+    Product getProductReference(Long id);
     void deleteProductById(Long id);
     Product updateProduct(UpdateProductRequest product, Long productId);
     List<Product> getAllProduct();
@@ -20,6 +28,14 @@ public interface ProductService {
     List<Product> getProductsByBrandAndName(String brand, String name);
     Long countProductsByBrandAndName(String brand, String name);
 
+    CursorPage<Product> getProducts(String after, Integer size);
+    CursorPage<Product> getProductsByCategory(String category, String after, Integer size);
+    CursorPage<Product> getProductsByBrand(String brand, String after, Integer size);
+    CursorPage<Product> getProductsByCategoryAndBrand(String category, String brand, String after, Integer size);
+    CursorPage<Product> getProductsByName(String name, String after, Integer size);
+    FacetedPage<Product> filterProducts(ProductFilterRequest filter, String after, Integer size);
+
     ProductDto getProductDto(Product product);
     List<ProductDto> getListProductDto(List<Product> products);
+    CacheStatsDto getCacheStats();
 }
@@ -1,46 +1,102 @@
 package com.project.ecommerceapp.service.product;
+import com.project.ecommerceapp.dto.BulkResult;
+import com.project.ecommerceapp.dto.CacheStatsDto;
+import com.project.ecommerceapp.dto.CursorPage;
+import com.project.ecommerceapp.dto.FacetedPage;
 import com.project.ecommerceapp.dto.ProductDto;
+import com.project.ecommerceapp.dto.ProductFacets;
 import com.project.ecommerceapp.exceptions.ResourceException;
 import com.project.ecommerceapp.mapper.ProductMapper;
 import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.ChangeOp;
+import com.project.ecommerceapp.model.ChangeType;
+import com.project.ecommerceapp.model.Image;
 import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.BrandCategoryCount;
 import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductPageWithFacets;
 import com.project.ecommerceapp.repository.ProductRepository;
 import com.project.ecommerceapp.request.AddProductRequest;
+import com.project.ecommerceapp.request.BulkDeleteRequest;
+import com.project.ecommerceapp.request.ProductFilterRequest;
 import com.project.ecommerceapp.request.UpdateProductRequest;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.category.CategoryCache;
+import com.project.ecommerceapp.service.search.ProductSearchService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.project.ecommerceapp.repository.ProductSpecifications.*;
+
 /*
     This class is a service implementation that provides logic methods for managing products.
     Using ProductRepository class to interact with database and using CategoryRepository class for retrieve the category information.
+    Category lookups by name go through CategoryCache, so creating or updating a product does not query the category table.
+    Single product reads go through ProductDtoCache, every product write invalidates its entry.
 */
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService{
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ImageRepository imageRepository;
+    private final CategoryCache categoryCache;
+    private final ProductDtoCache productDtoCache;
+    private final ProductSearchService productSearchService;
+    private final ProductBulkService productBulkService;
+    private final CatalogVersion catalogVersion;
+    private final ChangeFeedService changeFeedService;
+
+    @Value("${product.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${product.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${api.prefix}")
+    private String apiPrefix;
 
     /*
         - Added new product
         - request : Object from AddProductRequest who contain the product details who will use.
         - Return new product / save new product.
+        - The product, and a category created for it, are recorded in the change feed in the same transaction.
     */
     @Override
+    @Transactional
     public Product addProduct(AddProductRequest request) {
         // check the category in the database
         // set the product if found the category
         // set new category, if we can't found category
-        Category category = Optional.ofNullable(categoryRepository.findByName(request.getCategory().getName()))
+        Category category = Optional.ofNullable(categoryCache.getByName(request.getCategory().getName()))
                 .orElseGet(() -> {
-                    Category newCategory = new Category(request.getCategory().getName());
-                    return categoryRepository.save(newCategory);
+                    Category newCategory = categoryRepository.save(new Category(request.getCategory().getName()));
+                    changeFeedService.record(ChangeType.CATEGORY, newCategory.getId(), ChangeOp.UPSERT, null);
+                    categoryCache.put(newCategory);
+                    return newCategory;
                 });
         request.setCategory(category);
-        return productRepository.save(createProduct(request, category));
+        Product product = productRepository.save(createProduct(request, category));
+        changeFeedService.record(ChangeType.PRODUCT, product.getId(), ChangeOp.UPSERT, product.getVersion());
+        productSearchService.index(product);
+        catalogVersion.bump();
+        return product;
     }
     private Product createProduct (AddProductRequest request, Category category){
         return new Product(
@@ -59,22 +115,68 @@ public class ProductServiceImpl implements ProductService{
         - Return product with the id from the request and will throw exception message if the product id not found.
     */
     @Override
+    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceException("Product Not Found"));
     }
 
     /*
-        - Deletes product by his id.
+        - Retrieves the mapped product by his id, from ProductDtoCache.
+        - id : Param id from the product selected to retrieve.
+        - Return the cached dto, will throw exception message if the product id not found.
+    */
+    @Override
+    public ProductDto getProductDtoById(Long id) {
+        ProductDto product = productDtoCache.get(id);
+        if (product == null) {
+            throw new ResourceException("Product Not Found");
+        }
+        return product;
+    }
+
+    /*
+        - Retrieves the ETag of a product by his id, from its versions only (see ProductDtoCache.etag).
+        - id : Param id from the product selected.
+        - Will throw exception message if the product id not found.
+    */
+    @Override
+    public String getProductETag(Long id) {
+        String etag = productDtoCache.etag(id);
+        if (etag == null) {
+            throw new ResourceException("Product Not Found");
+        }
+        return etag;
+    }
+
+    @Override
+    public String getProductETag(ProductDto product) {
+        return ProductDtoCache.etag(product);
+    }
+
+    /*
+        - Retrieves a reference to an existing product, to associate other entities with it.
+        - id : Param id from the product selected.
+        - Existence is checked against ProductDtoCache, the product row itself is not loaded.
+        - Will throw exception message if the product id not found.
+    */
+    @Override
+    public Product getProductReference(Long id) {
+        getProductDtoById(id);
+        return productRepository.getReferenceById(id);
+    }
+
+    /*
+        - Deletes product by his id, with set-based deletes of its images and the product row (see ProductBulkService).
         - id : Param id from product selected.
         - Throw exception message if the product with selected id not found.
     */
     @Override
     public void deleteProductById(Long id) {
-        productRepository.findById(id)
-                .ifPresentOrElse(productRepository::delete, () -> {
-                    throw new ResourceException("Product Not Found");
-                });
+        BulkResult result = productBulkService.deleteProducts(new BulkDeleteRequest(List.of(id), null, null));
+        if (result.getProducts() == 0) {
+            throw new ResourceException("Product Not Found");
+        }
     }
 
     /*
@@ -82,22 +184,35 @@ public class ProductServiceImpl implements ProductService{
         - request   : Object from AddProductRequest who contain the product details who will use.
         - productId : Param from product id selected for update.
         - Throw exception message if product with id selected not found.
+        - Throw ObjectOptimisticLockingFailureException if the product changed since request.version, or while updating,
+          e.g. by an inventory reservation, instead of overwriting that change.
+        - Flushed before the change feed record, so it carries the new version.
     */
     @Override
+    @Transactional
     public Product updateProduct(UpdateProductRequest request, Long productId) {
-        return productRepository.findById(productId)
+        Product updated = productRepository.findById(productId)
                 .map(product -> updateExistingProduct(product, request))
-                .map(productRepository::save)
+                .map(productRepository::saveAndFlush)
                 .orElseThrow(() -> new ResourceException("Product Not Found"));
+        changeFeedService.record(ChangeType.PRODUCT, productId, ChangeOp.UPSERT, updated.getVersion());
+        productSearchService.index(updated);
+        productDtoCache.invalidate(productId);
+        catalogVersion.bump();
+        return updated;
     }
     private Product updateExistingProduct(Product product, UpdateProductRequest request){
+        if (request.getVersion() != null && request.getVersion() != product.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, product.getId());
+        }
         product.setName(request.getName());
         product.setBrand(request.getBrand());
         product.setPrice(request.getPrice());
-        product.setInventory(request.getInventory());
+        // the request carries the total a buyer sees, part of it may be leased to a hot counter
+        product.setInventory(Math.max(0, request.getInventory() - product.getHeld()));
         product.setDescription(request.getDescription());
 
-        Category category = categoryRepository.findByName(request.getCategory().getName());
+        Category category = categoryCache.getByName(request.getCategory().getName());
         product.setCategory(category);
         return product;
     }
@@ -107,8 +222,9 @@ public class ProductServiceImpl implements ProductService{
         - Return list of products.
     */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getAllProduct() {
-        return productRepository.findAll();
+        return withImages(productRepository.findAll());
     }
 
     /*
@@ -117,8 +233,9 @@ public class ProductServiceImpl implements ProductService{
         - Returns list of products with that category.
     */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategoryName(category);
+        return withImages(productRepository.findByCategoryName(category));
     }
 
     /*
@@ -127,8 +244,9 @@ public class ProductServiceImpl implements ProductService{
         - Returns list of products with that brand.
     */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getProductsByBrand(String brand) {
-        return productRepository.findByBrand(brand);
+        return withImages(productRepository.findByBrand(brand));
     }
 
     /*
@@ -138,8 +256,9 @@ public class ProductServiceImpl implements ProductService{
         - Returns list of products with that category and brand.
     */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategoryAndBrand(String category, String brand) {
-        return productRepository.findByCategoryNameAndBrand(category, brand);
+        return withImages(productRepository.findByCategoryNameAndBrand(category, brand));
     }
 
     /*
@@ -148,8 +267,9 @@ public class ProductServiceImpl implements ProductService{
         - Returns list of products with that product name.
     */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getProductsByName(String name) {
-        return productRepository.findByName(name);
+        return withImages(productRepository.findByName(name));
     }
 
     /*
@@ -159,8 +279,9 @@ public class ProductServiceImpl implements ProductService{
         - Returns list of products with that brand name and name of product.
     */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getProductsByBrandAndName(String brand, String name) {
-        return productRepository.findByBrandAndName(brand, name);
+        return withImages(productRepository.findByBrandAndName(brand, name));
     }
 
     /*
@@ -170,18 +291,197 @@ public class ProductServiceImpl implements ProductService{
         - Returns the count of product belonging that specific order.
     */
     @Override
+    @Transactional(readOnly = true)
     public Long countProductsByBrandAndName(String brand, String name) {
         return productRepository.countByBrandAndName(brand, name);
     }
 
+    /*
+        - Retrieves one keyset page of all products, ordered by id.
+        - after : Opaque cursor from the previous page, null for the first page.
+        - size  : Requested page size, capped at product.page.max-size.
+        - Returns the page and the cursor of the next one (null on the last page).
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProducts(String after, Integer size) {
+        int limit = pageSize(size);
+        return toPage(productRepository.findByIdGreaterThanOrderByIdAsc(ProductCursor.decode(after), Limit.of(limit + 1)), limit);
+    }
+
+    /*
+        - Retrieves one keyset page of products by category.
+        - category : Param for category name to filter by.
+        - after, size : Same as getProducts.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsByCategory(String category, String after, Integer size) {
+        int limit = pageSize(size);
+        return toPage(productRepository.findByCategoryNameAndIdGreaterThanOrderByIdAsc(
+                category, ProductCursor.decode(after), Limit.of(limit + 1)), limit);
+    }
+
+    /*
+        - Retrieves one keyset page of products by brand name.
+        - brand : Param for brand name to filter by.
+        - after, size : Same as getProducts.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsByBrand(String brand, String after, Integer size) {
+        int limit = pageSize(size);
+        return toPage(productRepository.findByBrandAndIdGreaterThanOrderByIdAsc(
+                brand, ProductCursor.decode(after), Limit.of(limit + 1)), limit);
+    }
+
+    /*
+        - Retrieves one keyset page of products by category and brand name.
+        - category : Param for category name to filter by.
+        - brand    : Param for brand name to filter by.
+        - after, size : Same as getProducts.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsByCategoryAndBrand(String category, String brand, String after, Integer size) {
+        int limit = pageSize(size);
+        return toPage(productRepository.findByCategoryNameAndBrandAndIdGreaterThanOrderByIdAsc(
+                category, brand, ProductCursor.decode(after), Limit.of(limit + 1)), limit);
+    }
+
+    /*
+        - Retrieves one keyset page of products by his name.
+        - name : Param for product name to filter by.
+        - after, size : Same as getProducts.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsByName(String name, String after, Integer size) {
+        int limit = pageSize(size);
+        return toPage(productRepository.findByNameAndIdGreaterThanOrderByIdAsc(
+                name, ProductCursor.decode(after), Limit.of(limit + 1)), limit);
+    }
+
+    /*
+        - Retrieves one keyset page of products matching any combination of filters, with facet counts.
+        - filter : Category, brand, name, price range and in-stock flag, unset fields do not filter.
+        - after, size : Same as getProducts.
+        - The brand counts ignore the brand filter and the category counts ignore the category filter,
+          so the client can show how many products every other choice would give.
+          Both come from one grouped (brand, category) query, the page itself is one more select.
+    */
+    @Override
+    @Transactional(readOnly = true)
+    public FacetedPage<Product> filterProducts(ProductFilterRequest filter, String after, Integer size) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        int limit = pageSize(size);
+        List<Specification<Product>> facetFilters = new ArrayList<>();
+        if (filter.getName() != null) {
+            facetFilters.add(hasName(filter.getName()));
+        }
+        if (filter.getMinPrice() != null) {
+            facetFilters.add(priceAtLeast(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            facetFilters.add(priceAtMost(filter.getMaxPrice()));
+        }
+        if (filter.isInStock()) {
+            facetFilters.add(inStock());
+        }
+        List<Specification<Product>> pageFilters = new ArrayList<>(facetFilters);
+        if (filter.getCategory() != null) {
+            pageFilters.add(hasCategory(filter.getCategory()));
+        }
+        if (filter.getBrand() != null) {
+            pageFilters.add(hasBrand(filter.getBrand()));
+        }
+        pageFilters.add(idAfter(ProductCursor.decode(after)));
+
+        // the page and the facet counts come back from one statement, the images of the page from a second one
+        ProductPageWithFacets rows = productRepository.findPageWithFacets(Specification.allOf(pageFilters),
+                Specification.allOf(facetFilters), limit + 1);
+        CursorPage<Product> page = toPage(attachImages(rows.getProducts()), limit);
+        return new FacetedPage<>(page.getItems(), page.getNextCursor(), toFacets(rows.getCounts(), filter));
+    }
+
+    // for products built from query columns, which have no lazy image collection to batch fetch
+    private List<Product> attachImages(List<Product> products) {
+        Map<Long, List<Image>> images = new HashMap<>();
+        if (!products.isEmpty()) {
+            imageRepository.findByProductIdInOrderById(products.stream().map(Product::getId).toList())
+                    .forEach(image -> images.computeIfAbsent(image.getProduct().getId(), id -> new ArrayList<>()).add(image));
+        }
+        products.forEach(product -> product.setImages(images.getOrDefault(product.getId(), new ArrayList<>())));
+        return products;
+    }
+
+    private static ProductFacets toFacets(List<BrandCategoryCount> counts, ProductFilterRequest filter) {
+        long total = 0;
+        Map<String, Long> brands = new HashMap<>();
+        Map<String, Long> categories = new HashMap<>();
+        for (BrandCategoryCount count : counts) {
+            boolean brandMatches = filter.getBrand() == null || filter.getBrand().equals(count.getBrand());
+            boolean categoryMatches = filter.getCategory() == null || filter.getCategory().equals(count.getCategory());
+            if (brandMatches && categoryMatches) {
+                total += count.getCount();
+            }
+            if (categoryMatches && count.getBrand() != null) {
+                brands.merge(count.getBrand(), count.getCount(), Long::sum);
+            }
+            if (brandMatches && count.getCategory() != null) {
+                categories.merge(count.getCategory(), count.getCount(), Long::sum);
+            }
+        }
+        return new ProductFacets(total, byCountDescending(brands), byCountDescending(categories));
+    }
+
+    private static Map<String, Long> byCountDescending(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    // one extra row is read to know whether a next page exists, so no COUNT(*) is needed
+    private CursorPage<Product> toPage(List<Product> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(withImages(rows), null);
+        }
+        List<Product> items = withImages(rows.subList(0, limit));
+        return new CursorPage<>(items, ProductCursor.encode(items.get(limit - 1).getId()));
+    }
+
+    // the listing dtos carry the images: loaded here, inside the read transaction and on its replica connection,
+    // not lazily by the mapping once it is over. Product.images is batch fetched, the first one loads the whole page
+    private static List<Product> withImages(List<Product> products) {
+        products.forEach(product -> Hibernate.initialize(product.getImages()));
+        return products;
+    }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        return productDtoCache.stats();
+    }
+
     @Override
     public ProductDto getProductDto(Product product) {
-        return ProductMapper.INSTANCE.producToProductDto(product);
+        return ProductMapper.INSTANCE.producToProductDto(product, apiPrefix);
     }
 
     @Override
     public List<ProductDto> getListProductDto(List<Product> products) {
-        return ProductMapper.INSTANCE.productListToProductDto(products);
+        return ProductMapper.INSTANCE.productListToProductDto(products, apiPrefix);
     }
 
 }
@@ -0,0 +1,10 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.CatalogStats;
+import com.project.ecommerceapp.dto.ProductStats;
+
+public interface ProductStatsService {
+    CatalogStats getStats();
+    ProductStats getStats(String brand, String category);
+    CatalogStats refresh();
+}
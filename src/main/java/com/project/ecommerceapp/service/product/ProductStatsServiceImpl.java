@@ -0,0 +1,163 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.CatalogStats;
+import com.project.ecommerceapp.dto.ProductStats;
+import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.repository.BrandCategoryStats;
+import com.project.ecommerceapp.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Catalog statistics for GET /product/stats, served from an in-memory summary.
+    The summary is built from one grouped query per (brand, category) pair; brand, category and catalog totals are
+    rolled up from those rows, which is exact for counts, sums, minimum and maximum. Reads never touch the database.
+    Stock moves with every reservation, so the summary is rebuilt every product.stats.refresh-interval instead of
+    being patched per write, and only while someone reads it. A read after a quiet period finds a summary older than
+    the interval and rebuilds it first, so no answer is older than that. refreshedAt tells how old the figures are.
+    Rebuilds are serialized by a ReentrantLock rather than a monitor, a virtual thread waiting on the scan does not pin
+    its carrier, and first readers arriving together wait for the one scan instead of each running their own.
+*/
+@Service
+public class ProductStatsServiceImpl implements ProductStatsService {
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnly;
+    private final Duration refreshInterval;
+    private volatile CatalogStats summary;
+    private volatile boolean read;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public ProductStatsServiceImpl(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                   @Value("${product.stats.refresh-interval:PT1M}") Duration refreshInterval) {
+        this.productRepository = productRepository;
+        this.refreshInterval = refreshInterval;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /*
+        - Retrieves the statistics of the whole catalog, per brand, per category and per brand and category.
+        - Builds the summary on the first call, and again when the last one is older than the refresh interval,
+          later calls return the last refreshed one.
+    */
+    @Override
+    public CatalogStats getStats() {
+        read = true;
+        CatalogStats current = summary;
+        if (isFresh(current)) {
+            return current;
+        }
+        refreshLock.lock();
+        try {
+            current = summary;
+            return isFresh(current) ? current : rebuild();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /*
+        - Retrieves the statistics of one brand, one category, or one brand within one category.
+        - brand, category : Either or both, without them the catalog totals are returned.
+        - Will throw exception message if no product matches.
+    */
+    @Override
+    public ProductStats getStats(String brand, String category) {
+        CatalogStats current = getStats();
+        ProductStats stats;
+        if (brand != null && category != null) {
+            stats = current.getBrandCategories().getOrDefault(brand, Collections.emptyMap()).get(category);
+        } else if (brand != null) {
+            stats = current.getBrands().get(brand);
+        } else if (category != null) {
+            stats = current.getCategories().get(category);
+        } else {
+            stats = current.getTotal();
+        }
+        if (stats == null) {
+            throw new ResourceException("No products found");
+        }
+        return stats;
+    }
+
+    /*
+        - Rebuilds the summary with one grouped query, in a read-only transaction (on the replica if there is one).
+        - Returns the new summary.
+    */
+    @Override
+    public CatalogStats refresh() {
+        refreshLock.lock();
+        try {
+            return rebuild();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private CatalogStats rebuild() {
+        List<BrandCategoryStats> rows = readOnly.execute(status -> productRepository.statsByBrandAndCategory());
+        ProductStats total = new ProductStats();
+        Map<String, ProductStats> brands = new TreeMap<>();
+        Map<String, ProductStats> categories = new TreeMap<>();
+        Map<String, Map<String, ProductStats>> brandCategories = new TreeMap<>();
+        for (BrandCategoryStats row : rows == null ? List.<BrandCategoryStats>of() : rows) {
+            ProductStats stats = new ProductStats(row.getCount(), row.getInventory(),
+                    row.getInventoryValue() == null ? BigDecimal.ZERO : row.getInventoryValue(),
+                    row.getMinPrice(), row.getMaxPrice());
+            add(total, stats);
+            // products without brand or category only count towards the totals
+            if (row.getBrand() != null) {
+                add(brands.computeIfAbsent(row.getBrand(), brand -> new ProductStats()), stats);
+            }
+            if (row.getCategory() != null) {
+                add(categories.computeIfAbsent(row.getCategory(), category -> new ProductStats()), stats);
+            }
+            if (row.getBrand() != null && row.getCategory() != null) {
+                brandCategories.computeIfAbsent(row.getBrand(), brand -> new TreeMap<>()).put(row.getCategory(), stats);
+            }
+        }
+        summary = new CatalogStats(total, brands, categories, brandCategories, Instant.now());
+        return summary;
+    }
+
+    // only a summary someone asked for since the last refresh is worth a full scan
+    @Scheduled(fixedDelayString = "${product.stats.refresh-interval:PT1M}")
+    public void refreshIfRead() {
+        if (read) {
+            read = false;
+            refresh();
+        }
+    }
+
+    private boolean isFresh(CatalogStats stats) {
+        return stats != null && stats.getRefreshedAt().plus(refreshInterval).isAfter(Instant.now());
+    }
+
+    private static void add(ProductStats into, ProductStats stats) {
+        into.setCount(into.getCount() + stats.getCount());
+        into.setInventory(into.getInventory() + stats.getInventory());
+        into.setInventoryValue(into.getInventoryValue().add(stats.getInventoryValue()));
+        into.setMinPrice(min(into.getMinPrice(), stats.getMinPrice()));
+        into.setMaxPrice(max(into.getMaxPrice(), stats.getMaxPrice()));
+    }
+
+    private static BigDecimal min(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.min(b);
+    }
+
+    private static BigDecimal max(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.max(b);
+    }
+}
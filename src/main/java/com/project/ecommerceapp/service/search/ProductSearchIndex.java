@@ -0,0 +1,317 @@
+package com.project.ecommerceapp.service.search;
+
+import com.project.ecommerceapp.dto.ProductSearchHit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+    In-memory inverted index over product name, brand and description, ranked with BM25.
+
+    Every indexed product gets an int ordinal. Postings are per-term int arrays of (ordinal, weighted term frequency)
+    pairs, which keeps a million products in a few hundred bytes each instead of boxed maps.
+    Updates append a new ordinal and mark the old one dead; dead ordinals are skipped while scoring and dropped
+    by compact() once they make up a quarter of the index.
+    Reads share a read lock, writes take the write lock for the few microseconds an update needs.
+    A query accumulates its scores in a hash table sized by the postings of its terms, so its memory follows the
+    number of candidates rather than the size of the index.
+*/
+class ProductSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_COMPACT = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final BitSet alive = new BitSet();
+
+    private long[] ids = new long[1024];
+    private int[] lengths = new int[1024];
+    private String[] names = new String[1024];
+    private String[] brands = new String[1024];
+    private BigDecimal[] prices = new BigDecimal[1024];
+    private int size;
+    private int live;
+    private long totalLength;
+
+    /*
+        - Adds a product or replaces its previous version.
+    */
+    void put(long id, String name, String brand, String description, BigDecimal price) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTerms(frequencies, name, NAME_WEIGHT)
+                + addTerms(frequencies, brand, BRAND_WEIGHT)
+                + addTerms(frequencies, description, DESCRIPTION_WEIGHT);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int ordinal = size++;
+            ensureCapacity(size);
+            ids[ordinal] = id;
+            lengths[ordinal] = length;
+            names[ordinal] = name;
+            brands[ordinal] = brand;
+            prices[ordinal] = price;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(ordinal, entry.getValue());
+            }
+            alive.set(ordinal);
+            ordinalById.put(id, ordinal);
+            live++;
+            totalLength += length;
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return ordinalById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+        - Returns the limit best matches of query, best first.
+        - Products matching any query term are candidates, matching more (and rarer) terms ranks higher.
+    */
+    List<ProductSearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (live == 0) {
+                return List.of();
+            }
+            List<Postings> lists = new ArrayList<>(terms.size());
+            int candidates = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                    candidates += list.size / 2;
+                }
+            }
+            Scores scores = new Scores(Math.min(candidates, size));
+            float averageLength = (float) totalLength / live;
+            for (Postings list : lists) {
+                // like Lucene, dead entries still count towards the document frequency until compaction
+                int documentFrequency = Math.min(list.size / 2, live);
+                float idf = (float) Math.log(1 + (live - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                int[] data = list.data;
+                for (int i = 0; i < list.size; i += 2) {
+                    int ordinal = data[i];
+                    if (!alive.get(ordinal)) {
+                        continue;
+                    }
+                    float tf = data[i + 1];
+                    float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    scores.add(ordinal, idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // min-heap of the best limit candidates, by position in scores
+    private List<ProductSearchHit> topK(Scores scores, int limit) {
+        float[] values = scores.values;
+        int[] ordinals = scores.ordinals;
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, (a, b) -> values[a] != values[b]
+                ? Float.compare(values[a], values[b]) : Long.compare(ids[ordinals[b]], ids[ordinals[a]]));
+        for (int i = 0; i < scores.size; i++) {
+            if (heap.size() < limit) {
+                heap.add(i);
+            } else if (heap.comparator().compare(i, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        ProductSearchHit[] hits = new ProductSearchHit[heap.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            int position = heap.poll();
+            int ordinal = ordinals[position];
+            hits[i] = new ProductSearchHit(ids[ordinal], names[ordinal], brands[ordinal], prices[ordinal], values[position]);
+        }
+        return Arrays.asList(hits);
+    }
+
+    private void removeLocked(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        alive.clear(ordinal);
+        live--;
+        totalLength -= lengths[ordinal];
+        names[ordinal] = null;
+        brands[ordinal] = null;
+        prices[ordinal] = null;
+    }
+
+    private void compactIfSparse() {
+        int dead = size - live;
+        if (dead > MIN_COMPACT && dead > size / 4) {
+            compact();
+        }
+    }
+
+    // renumbers the live ordinals densely and drops dead entries from every postings list
+    private void compact() {
+        int[] remap = new int[size];
+        int next = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (alive.get(ordinal)) {
+                remap[ordinal] = next;
+                ids[next] = ids[ordinal];
+                lengths[next] = lengths[ordinal];
+                names[next] = names[ordinal];
+                brands[next] = brands[ordinal];
+                prices[next] = prices[ordinal];
+                next++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        List<String> empty = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            if (entry.getValue().remap(remap) == 0) {
+                empty.add(entry.getKey());
+            }
+        }
+        empty.forEach(postings::remove);
+        Arrays.fill(names, next, size, null);
+        Arrays.fill(brands, next, size, null);
+        Arrays.fill(prices, next, size, null);
+        alive.clear();
+        alive.set(0, next);
+        ordinalById.replaceAll((id, ordinal) -> remap[ordinal]);
+        size = next;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        lengths = Arrays.copyOf(lengths, grown);
+        names = Arrays.copyOf(names, grown);
+        brands = Arrays.copyOf(brands, grown);
+        prices = Arrays.copyOf(prices, grown);
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = SearchTokenizer.tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    /*
+        Scores of one query: an open-addressing table from ordinal to a position in the dense ordinals / values arrays.
+        Sized once from the candidate count, it never grows.
+    */
+    private static final class Scores {
+        // position + 1, 0 marks a free slot
+        private final int[] slots;
+        private final int shift;
+        private final int[] ordinals;
+        private final float[] values;
+        private int size;
+
+        Scores(int candidates) {
+            slots = new int[Integer.highestOneBit(Math.max(4, candidates * 2 - 1)) << 1];
+            shift = Integer.numberOfLeadingZeros(slots.length - 1);
+            ordinals = new int[candidates];
+            values = new float[candidates];
+        }
+
+        void add(int ordinal, float score) {
+            int mask = slots.length - 1;
+            // Fibonacci hashing, consecutive ordinals land far apart
+            for (int slot = (ordinal * 0x9E3779B9) >>> shift; ; slot = (slot + 1) & mask) {
+                int position = slots[slot] - 1;
+                if (position < 0) {
+                    slots[slot] = size + 1;
+                    ordinals[size] = ordinal;
+                    values[size++] = score;
+                    return;
+                }
+                if (ordinals[position] == ordinal) {
+                    values[position] += score;
+                    return;
+                }
+            }
+        }
+    }
+
+    /*
+        Growable list of (ordinal, frequency) pairs, ordinals in ascending order.
+    */
+    private static final class Postings {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int ordinal, int frequency) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = ordinal;
+            data[size++] = frequency;
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i += 2) {
+                int ordinal = remap[data[i]];
+                if (ordinal >= 0) {
+                    data[kept++] = ordinal;
+                    data[kept++] = data[i + 1];
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.ecommerceapp.service.search;
+
+import com.project.ecommerceapp.dto.ProductSearchHit;
+import com.project.ecommerceapp.model.Product;
+
+import java.util.List;
+
+public interface ProductSearchService {
+    List<ProductSearchHit> search(String query, Integer limit);
+    void index(Product product);
+    void remove(Long productId);
+}
@@ -0,0 +1,139 @@
+package com.project.ecommerceapp.service.search;
+
+import com.project.ecommerceapp.dto.ProductSearchHit;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static com.project.ecommerceapp.service.TransactionHooks.afterCommit;
+
+/*
+    This class answers product search from ProductSearchIndex, without touching the database.
+    The index is loaded from ProductRepository in the background once the application is up, and kept current
+    by ProductServiceImpl and ProductImportServiceImpl calling index / remove after each write.
+    Called inside a transaction, index and remove apply once it commits, a rolled back write leaves no hit behind.
+*/
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchServiceImpl implements ProductSearchService {
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    // products written while the initial load runs, the load must not overwrite them with what it read earlier
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loading;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${product.search.default-limit:10}")
+    private int defaultLimit;
+
+    @Value("${product.search.max-limit:100}")
+    private int maxLimit;
+
+    /*
+        - Starts loading every product into the index in the background.
+    */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        loading = true;
+        Thread worker = new Thread(this::load, "product-search-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /*
+        - Retrieves the best matching products for a free text query.
+        - query : Words to look for in name, brand and description.
+        - limit : Maximum number of hits, capped at product.search.max-limit.
+        - Returns hits ranked by relevance, best first.
+    */
+    @Override
+    public List<ProductSearchHit> search(String query, Integer limit) {
+        int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        return index.search(query, size);
+    }
+
+    @Override
+    public void index(Product product) {
+        afterCommit(() -> whileLoading(product.getId(), () -> put(product)));
+    }
+
+    @Override
+    public void remove(Long productId) {
+        afterCommit(() -> whileLoading(productId, () -> index.remove(productId)));
+    }
+
+    private void whileLoading(Long productId, Runnable write) {
+        if (!loading) {
+            write.run();
+            return;
+        }
+        loadLock.lock();
+        try {
+            changedDuringLoad.add(productId);
+            write.run();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void put(Product product) {
+        index.put(product.getId(), product.getName(), product.getBrand(), product.getDescription(), product.getPrice());
+    }
+
+    private void load() {
+        long started = System.nanoTime();
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            readOnly.execute(status -> {
+                try (Stream<Product> products = productRepository.streamAllBy()) {
+                    int rows = 0;
+                    for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+                        Product product = it.next();
+                        loadLock.lock();
+                        try {
+                            if (!changedDuringLoad.contains(product.getId())) {
+                                put(product);
+                            }
+                        } finally {
+                            loadLock.unlock();
+                        }
+                        if (++rows % ProductRepository.STREAM_FETCH_SIZE == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+                return null;
+            });
+            log.info("Indexed {} products for search in {} ms", index.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Loading the product search index failed", e);
+        } finally {
+            loadLock.lock();
+            try {
+                loading = false;
+                changedDuringLoad.clear();
+            } finally {
+                loadLock.unlock();
+            }
+        }
+    }
+}
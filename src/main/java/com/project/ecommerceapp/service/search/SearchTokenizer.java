@@ -0,0 +1,57 @@
+package com.project.ecommerceapp.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+    Splits text into normalized terms: letters and digits only, lowercase, with a light suffix stemmer
+    so "phones" and "phone" or "batteries" and "battery" meet on the same term. Queries and documents use the same rules.
+*/
+final class SearchTokenizer {
+    private static final int MIN_STEM = 3;
+
+    private SearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                terms.add(stem(lower.substring(start, i)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String term) {
+        if (term.length() <= MIN_STEM || Character.isDigit(term.charAt(term.length() - 1))) {
+            return term;
+        }
+        if (term.endsWith("ies") && term.length() > MIN_STEM + 2) {
+            return term.substring(0, term.length() - 3) + "y";
+        }
+        if (term.endsWith("sses") || term.endsWith("xes") || term.endsWith("ches") || term.endsWith("shes")) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.endsWith("ing") && term.length() > MIN_STEM + 3) {
+            return term.substring(0, term.length() - 3);
+        }
+        if (term.endsWith("ed") && term.length() > MIN_STEM + 2) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+}
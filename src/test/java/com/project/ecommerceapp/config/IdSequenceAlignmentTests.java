@@ -0,0 +1,57 @@
+package com.project.ecommerceapp.config;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    Starts on a database that still has the IDENTITY tables with rows (legacy-identity-schema.sql), as an existing
+    install does on its first start after the upgrade: ddl-auto=update adds the sequences at 1.
+*/
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacy-ids;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:legacy-identity-schema.sql"
+})
+class IdSequenceAlignmentTests {
+    @Autowired
+    private IdSequenceAlignment idSequenceAlignment;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertsAfterTheUpgradeGetIdsPastTheExistingRows() {
+        Category category = categoryRepository.save(new Category("after-upgrade"));
+        Product product = productRepository.save(
+                new Product("after-upgrade", "LegacyBrand", BigDecimal.ONE, 1, "", category));
+
+        assertThat(category.getId()).isGreaterThan(7);
+        assertThat(product.getId()).isGreaterThan(120);
+        assertThat(categoryRepository.count()).isEqualTo(3);
+        assertThat(productRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void alignedSequencesAreLeftAlone() {
+        assertThat(idSequenceAlignment.align("image_seq", "image")).isFalse();
+
+        jdbcTemplate.execute("alter sequence image_seq restart with 1");
+        assertThat(idSequenceAlignment.align("image_seq", "image")).isTrue();
+        assertThat(jdbcTemplate.queryForObject("select next value for image_seq", Long.class))
+                .isGreaterThanOrEqualTo(3 + IdSequenceAlignment.ALLOCATION_SIZE);
+    }
+}
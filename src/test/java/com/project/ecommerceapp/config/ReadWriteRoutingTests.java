@@ -0,0 +1,203 @@
+package com.project.ecommerceapp.config;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import com.project.ecommerceapp.service.image.storage.StoredImage;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    Both pools point at the same in-memory database, which one served a request shows in its acquire count.
+    Against real instances, set spring.datasource.url and spring.datasource.replica.url to the two servers.
+    The response cache is on, as in production, with a short replica lag. It is still long enough that a slow
+    machine does not let the pin expire between two requests.
+*/
+@SpringBootTest(properties = {
+        "spring.datasource.replica.url=jdbc:h2:mem:ecommerce-app;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.read-your-writes=PT2S",
+        "catalog.response-cache.enabled=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class ReadWriteRoutingTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ImageStorage imageStorage;
+    @Autowired
+    private ProductDtoCache productDtoCache;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long replica = acquired(ReadWriteRoutingDataSource.REPLICA);
+        long primary = acquired(ReadWriteRoutingDataSource.PRIMARY);
+        readOnly.execute(status -> categoryRepository.count());
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 1);
+
+        new TransactionTemplate(transactionManager).execute(status -> categoryRepository.save(new Category("routing-write")));
+        assertThat(acquired(ReadWriteRoutingDataSource.PRIMARY)).isEqualTo(primary + 1);
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 1);
+
+        ReadWriteRoutingDataSource.onPrimary(() -> readOnly.execute(status -> categoryRepository.count()));
+        assertThat(acquired(ReadWriteRoutingDataSource.PRIMARY)).isEqualTo(primary + 2);
+    }
+
+    @Test
+    void clientReadsItsOwnWritesFromThePrimary() throws Exception {
+        Cookie pin = mockMvc.perform(post("/api/v1/category/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"routing-sticky\"}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+
+        long replica = acquired(ReadWriteRoutingDataSource.REPLICA);
+        mockMvc.perform(get("/api/v1/category/").cookie(pin)).andExpect(status().isOk());
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica);
+
+        mockMvc.perform(get("/api/v1/category/")).andExpect(status().isOk());
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isGreaterThan(replica);
+    }
+
+    @Test
+    void pinWindowStartsWhenTheWriteHasAnswered() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMillis(500));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long[] answered = new long[1];
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/category/"), response, (req, res) -> {
+            try {
+                Thread.sleep(600);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            answered[0] = System.currentTimeMillis();
+            res.getWriter().write("{}");
+        });
+
+        Cookie pin = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(pin).isNotNull();
+        assertThat(Long.parseLong(pin.getValue())).isGreaterThanOrEqualTo(answered[0] + 500);
+    }
+
+    @Test
+    void cachedListingsAreBuiltByTheReplica() throws Exception {
+        mockMvc.perform(post("/api/v1/category/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"routing-cached\"}"))
+                .andExpect(status().isOk());
+
+        // within the replica lag of the write: from the replica, not stored
+        long replica = acquired(ReadWriteRoutingDataSource.REPLICA);
+        long primary = acquired(ReadWriteRoutingDataSource.PRIMARY);
+        mockMvc.perform(get("/api/v1/category/"))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "BYPASS"));
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 1);
+
+        Thread.sleep(2100);
+        mockMvc.perform(get("/api/v1/category/"))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "MISS"));
+        mockMvc.perform(get("/api/v1/category/"))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "HIT"));
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 2);
+        assertThat(acquired(ReadWriteRoutingDataSource.PRIMARY)).isEqualTo(primary);
+    }
+
+    @Test
+    void onlyRecentlyWrittenProductsLoadFromThePrimary() {
+        Category category = categoryRepository.save(new Category("routing-product"));
+        Product product = productRepository.save(new Product("routed", "brand", BigDecimal.TEN, 1, "routed", category));
+
+        long replica = acquired(ReadWriteRoutingDataSource.REPLICA);
+        long primary = acquired(ReadWriteRoutingDataSource.PRIMARY);
+        productDtoCache.get(product.getId());
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 1);
+
+        productDtoCache.invalidate(product.getId());
+        productDtoCache.get(product.getId());
+        assertThat(acquired(ReadWriteRoutingDataSource.PRIMARY)).isEqualTo(primary + 1);
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 1);
+    }
+
+    @Test
+    void productListingsAndFindersAreReadFromTheReplica() throws Exception {
+        seedProductWithImage("RoutingListBrand");
+
+        long replica = acquired(ReadWriteRoutingDataSource.REPLICA);
+        long primary = acquired(ReadWriteRoutingDataSource.PRIMARY);
+        // the products, their categories and their images on one replica connection per request
+        mockMvc.perform(get("/api/v1/product/").param("size", "100")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/product/brand").param("brand", "RoutingListBrand")).andExpect(status().isOk());
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 2);
+        assertThat(acquired(ReadWriteRoutingDataSource.PRIMARY)).isEqualTo(primary);
+    }
+
+    @Test
+    void imageDownloadsAreReadFromTheReplica() throws Exception {
+        Image image = seedProductWithImage("RoutingDownloadBrand");
+
+        long replica = acquired(ReadWriteRoutingDataSource.REPLICA);
+        long primary = acquired(ReadWriteRoutingDataSource.PRIMARY);
+        mockMvc.perform(get("/api/v1/images/download/{id}", image.getId())).andExpect(status().isOk());
+        assertThat(acquired(ReadWriteRoutingDataSource.REPLICA)).isEqualTo(replica + 1);
+        assertThat(acquired(ReadWriteRoutingDataSource.PRIMARY)).isEqualTo(primary);
+    }
+
+    private Image seedProductWithImage(String brand) throws Exception {
+        Category category = categoryRepository.save(new Category("routing-" + brand));
+        Product product = productRepository.save(new Product("routed", brand, BigDecimal.TEN, 1, "routed", category));
+        StoredImage stored = imageStorage.store(new ByteArrayInputStream(brand.getBytes(StandardCharsets.UTF_8)));
+        Image image = new Image();
+        image.setFileName("routed.txt");
+        image.setFileType("text/plain");
+        image.setStorageKey(stored.getKey());
+        image.setSize(stored.getSize());
+        image.setProduct(product);
+        return imageRepository.save(image);
+    }
+
+    private long acquired(String pool) {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.ecommerceapp.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageContentWriterTests {
+    private static final String BODY = "0123456789abcdefghij";
+
+    private final ImageContentWriter writer = new ImageContentWriter(Duration.ofHours(1), true);
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void overlappingRangesAreMerged() throws IOException {
+        MockHttpServletResponse response = serve("bytes=0-4,3-7,8-9,15-");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-9/20", "Content-Range: bytes 15-19/20")
+                .doesNotContain("bytes 3-7");
+    }
+
+    @Test
+    void rangesLongerThanTheFileGetTheFile() throws IOException {
+        MockHttpServletResponse response = serve("bytes=0-,0-,0-");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+    }
+
+    private MockHttpServletResponse serve(String range) throws IOException {
+        Path file = Files.writeString(dir.resolve("file"), BODY, StandardCharsets.US_ASCII);
+        ImageContent content = new ImageContent("key", BODY.length(), "image/png", "file.png", null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.serve(content, file, false, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageDownloadEndpointTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void downloadOfUnknownImageIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/images/download/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void downloadOfImageWithoutContentIsNotFound() throws Exception {
+        Long imageId = image(null).getId();
+
+        mockMvc.perform(get("/api/v1/images/download/{id}", imageId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void variantOfImageWithoutContentIsNotFound() throws Exception {
+        Long imageId = image(null).getId();
+
+        mockMvc.perform(get("/api/v1/images/{id}/variant", imageId).param("w", "160"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void downloadOfImageWhoseFileIsGoneIsNotFound() throws Exception {
+        Long imageId = image("0".repeat(64)).getId();
+
+        mockMvc.perform(get("/api/v1/images/download/{id}", imageId))
+                .andExpect(status().isNotFound());
+    }
+
+    private Image image(String storageKey) {
+        Category category = categoryRepository.save(new Category("image-download"));
+        Product product = productRepository.save(new Product("download", "DownloadBrand", BigDecimal.ONE, 1, null, category));
+        Image image = new Image();
+        image.setFileName("missing.png");
+        image.setFileType("image/png");
+        image.setStorageKey(storageKey);
+        image.setSize(storageKey == null ? null : 10L);
+        image.setProduct(product);
+        return imageRepository.save(image);
+    }
+}
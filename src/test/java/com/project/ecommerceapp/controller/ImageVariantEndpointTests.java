@@ -0,0 +1,51 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.image.ImageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageVariantEndpointTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ImageService imageService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void variantOfUnknownImageIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/images/{id}/variant", Long.MAX_VALUE).param("w", "160"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void variantOfUndecodableImageIsUnsupported() throws Exception {
+        Category category = categoryRepository.save(new Category("image-variant"));
+        Product product = productRepository.save(new Product("variant", "VariantBrand", BigDecimal.ONE, 1, null, category));
+        MockMultipartFile file = new MockMultipartFile("file", "notes.png", "image/png",
+                "not an image".getBytes(StandardCharsets.UTF_8));
+        Long imageId = imageService.saveImages(product.getId(), List.of(file)).get(0).getId();
+
+        mockMvc.perform(get("/api/v1/images/{id}/variant", imageId).param("w", "160"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,43 @@
+package com.project.ecommerceapp.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    The Prometheus scrape must carry the request, repository, Hibernate, connection pool and cache meters.
+*/
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusScrapeExposesApplicationMeters() throws Exception {
+        mockMvc.perform(get("/api/v1/product/")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/category/")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_count{", "uri=\"/api/v1/product/\"", "status=\"200\"")
+                .contains("spring_data_repository_invocations_seconds_count{", "repository=\"ProductRepository\"")
+                .contains("hibernate_statements_total", "hibernate_flushes_total", "hibernate_entities_loads_total")
+                .contains("hikaricp_connections_active", "hikaricp_connections_pending", "hikaricp_connections_acquire_seconds")
+                .contains("cache_gets_total{cache=\"product\"", "cache_gets_total{cache=\"category\"");
+    }
+}
@@ -0,0 +1,129 @@
+package com.project.ecommerceapp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductPaginationTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void cursorWalksTheListingOnceInIdOrder() throws Exception {
+        List<Long> seeded = seed("PagedBrand", 5);
+
+        JsonNode first = page(get("/api/v1/product/brand").param("brand", "PagedBrand").param("size", "2"));
+        assertThat(ids(first)).containsExactlyElementsOf(seeded.subList(0, 2));
+        assertThat(first.path("nextCursor").isTextual()).isTrue();
+
+        List<Long> walked = new ArrayList<>(ids(first));
+        String cursor = first.path("nextCursor").asText();
+        int pages = 1;
+        while (cursor != null) {
+            JsonNode next = page(get("/api/v1/product/brand").param("brand", "PagedBrand")
+                    .param("size", "2").param("after", cursor));
+            walked.addAll(ids(next));
+            cursor = next.path("nextCursor").isTextual() ? next.path("nextCursor").asText() : null;
+            pages++;
+        }
+        assertThat(pages).isEqualTo(3);
+        assertThat(walked).containsExactlyElementsOf(seeded);
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() throws Exception {
+        List<Long> seeded = seed("ExactPagedBrand", 4);
+
+        JsonNode first = page(get("/api/v1/product/brand").param("brand", "ExactPagedBrand").param("size", "2"));
+        JsonNode last = page(get("/api/v1/product/brand").param("brand", "ExactPagedBrand")
+                .param("size", "2").param("after", first.path("nextCursor").asText()));
+
+        assertThat(ids(last)).containsExactlyElementsOf(seeded.subList(2, 4));
+        assertThat(last.path("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void rowsEqualOnEveryFilteredColumnAreNeitherRepeatedNorSkipped() throws Exception {
+        // same brand, name and price: only the id tells them apart
+        List<Long> seeded = seed("TiedPagedBrand", 7);
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/product/filter")
+                    .param("brand", "TiedPagedBrand").param("minPrice", "10").param("maxPrice", "10")
+                    .param("size", "3");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            JsonNode page = page(request);
+            walked.addAll(ids(page));
+            cursor = page.path("nextCursor").isTextual() ? page.path("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(walked).containsExactlyElementsOf(seeded);
+    }
+
+    @Test
+    void malformedOrTamperedCursorIsABadRequest() throws Exception {
+        for (String cursor : List.of("not a cursor!", encode("x:5"), encode("p:abc"), encode("p:"))) {
+            mockMvc.perform(get("/api/v1/product/").param("after", cursor)).andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/v1/product/brand").param("brand", "PagedBrand").param("after", cursor))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/v1/product/filter").param("brand", "PagedBrand").param("after", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private List<Long> seed(String brand, int count) {
+        Category category = categoryRepository.save(new Category("paged-" + brand));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("paged", brand, BigDecimal.TEN, 1, "", category));
+        }
+        return productRepository.saveAll(products).stream().map(Product::getId).sorted().toList();
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("data");
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.path("items").forEach(item -> ids.add(item.path("id").asLong()));
+        return ids;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,145 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.support.StatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    Guards the product read endpoints against N+1 queries: the number of SQL statements per request
+    must not depend on how many products are returned.
+*/
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductQueryCountTests {
+    private static final int SMALL = 5;
+    private static final int LARGE = 50;
+    // products + category join, one batch of images
+    private static final int MAX_STATEMENTS = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @BeforeAll
+    void seed() {
+        Category small = categoryRepository.save(new Category("query-count-small"));
+        Category large = categoryRepository.save(new Category("query-count-large"));
+        seed(small, "SmallBrand", SMALL);
+        seed(large, "LargeBrand", LARGE);
+    }
+
+    private void seed(Category category, String brand, int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("item", brand, BigDecimal.TEN, 5, "description", category));
+        }
+        productRepository.saveAll(products);
+        List<Image> images = new ArrayList<>();
+        for (Product product : products) {
+            for (int i = 0; i < 2; i++) {
+                Image image = new Image();
+                image.setFileName("image-" + i + ".png");
+                image.setFileType("image/png");
+                image.setProduct(product);
+                images.add(image);
+            }
+        }
+        imageRepository.saveAll(images);
+    }
+
+    @Test
+    void listingUsesFixedNumberOfStatements() throws Exception {
+        assertSameStatementCount("/api/v1/product/?size=" + SMALL, "/api/v1/product/?size=" + LARGE);
+    }
+
+    @Test
+    void brandFinderUsesFixedNumberOfStatements() throws Exception {
+        assertSameStatementCount("/api/v1/product/brand?brand=SmallBrand", "/api/v1/product/brand?brand=LargeBrand&size=" + LARGE);
+    }
+
+    @Test
+    void categoryAndBrandFinderUsesFixedNumberOfStatements() throws Exception {
+        assertSameStatementCount("/api/v1/product/category-and-brand?category=query-count-small&brandName=SmallBrand",
+                "/api/v1/product/category-and-brand?category=query-count-large&brandName=LargeBrand&size=" + LARGE);
+    }
+
+    @Test
+    void brandAndNameFinderUsesFixedNumberOfStatements() throws Exception {
+        assertSameStatementCount("/api/v1/product/brand-and-name?brandName=SmallBrand&productName=item",
+                "/api/v1/product/brand-and-name?brandName=LargeBrand&productName=item");
+    }
+
+    @Test
+    void filterUsesFixedNumberOfStatements() throws Exception {
+        String small = "/api/v1/product/filter?brand=SmallBrand&inStock=true";
+        String large = "/api/v1/product/filter?brand=LargeBrand&minPrice=1&maxPrice=100&size=" + LARGE;
+        // the page together with the grouped facet counts, and its images
+        assertThat(statementsFor(large)).isEqualTo(statementsFor(small)).isLessThanOrEqualTo(MAX_STATEMENTS);
+        mockMvc.perform(get(large))
+                .andExpect(jsonPath("$.data.items.length()").value(LARGE))
+                .andExpect(jsonPath("$.data.facets.total").value(LARGE))
+                .andExpect(jsonPath("$.data.facets.brands.SmallBrand").value(SMALL))
+                .andExpect(jsonPath("$.data.facets.categories.query-count-large").value(LARGE));
+    }
+
+    @Test
+    void productByIdUsesFixedNumberOfStatements() throws Exception {
+        Long id = productRepository.findByBrand("LargeBrand").get(0).getId();
+        assertThat(statementsFor("/api/v1/product/id/" + id)).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void repeatedProductByIdIsServedFromCache() throws Exception {
+        Long id = productRepository.findByBrand("SmallBrand").get(0).getId();
+        statementsFor("/api/v1/product/id/" + id);
+        assertThat(statementsFor("/api/v1/product/id/" + id)).isZero();
+    }
+
+    @Test
+    void listingNeverSelectsImagePayload() throws Exception {
+        statementsFor("/api/v1/product/?size=" + LARGE);
+        // the legacy payload column is mapped by ImageBlob only
+        assertThat(StatementCounter.statements()).noneMatch(sql -> sql.matches("(?s).*\\.image\\b.*"));
+        mockMvc.perform(get("/api/v1/product/brand?brand=SmallBrand&size=1"))
+                .andExpect(jsonPath("$.data.items[0].images[0].fileType").value("image/png"));
+    }
+
+    private void assertSameStatementCount(String smallResult, String largeResult) throws Exception {
+        int small = statementsFor(smallResult);
+        int large = statementsFor(largeResult);
+        assertThat(large).as("statements for %s", largeResult).isEqualTo(small);
+        assertThat(large).as("statements for %s", largeResult).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private int statementsFor(String url) throws Exception {
+        StatementCounter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return StatementCounter.count();
+    }
+}
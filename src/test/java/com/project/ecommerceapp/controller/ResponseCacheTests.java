@@ -0,0 +1,250 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.config.ResponseCacheFilter;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.InventoryItem;
+import com.project.ecommerceapp.request.InventoryRequest;
+import com.project.ecommerceapp.request.UpdateProductRequest;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ResponseCache;
+import com.project.ecommerceapp.service.category.CategoryService;
+import com.project.ecommerceapp.service.inventory.InventoryService;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
+import com.project.ecommerceapp.service.product.ProductService;
+import com.project.ecommerceapp.support.StatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "catalog.response-cache.enabled=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ResponseCacheTests {
+    private static final String LISTING = "/api/v1/product/brand?brand=CachedBrand&size=50";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ResponseCache responseCache;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductDtoCache productDtoCache;
+
+    @BeforeAll
+    void seed() {
+        Category category = categoryRepository.save(new Category("response-cache"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            products.add(new Product("cached-" + i, "CachedBrand", BigDecimal.TEN, 5, "description", category));
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void repeatedListingRunsNoStatements() throws Exception {
+        mockMvc.perform(get(LISTING + "&unused="))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "MISS"));
+        StatementCounter.reset();
+        mockMvc.perform(get(LISTING + "&unused="))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "HIT"))
+                .andExpect(jsonPath("$.data.items.length()").value(30));
+        assertThat(StatementCounter.count()).isZero();
+    }
+
+    @Test
+    void writeMakesListingsStale() throws Exception {
+        String url = "/api/v1/product/brand-and-name?brandName=CachedBrand&productName=cached-0";
+        mockMvc.perform(get(url)).andExpect(jsonPath("$.data[0].price").value(10));
+        mockMvc.perform(get(url)).andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "HIT"));
+
+        Product product = productRepository.findByBrandAndName("CachedBrand", "cached-0").get(0);
+        UpdateProductRequest update = new UpdateProductRequest();
+        update.setName(product.getName());
+        update.setBrand(product.getBrand());
+        update.setPrice(BigDecimal.valueOf(12));
+        update.setInventory(5);
+        update.setCategory(product.getCategory());
+        productService.updateProduct(update, product.getId());
+
+        mockMvc.perform(get(url))
+                .andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "MISS"))
+                .andExpect(jsonPath("$.data[0].price").value(12));
+    }
+
+    @Test
+    void writeOnAnotherInstanceMakesListingsStaleAtTheNextPoll() throws Exception {
+        String url = LISTING + "&elsewhere=";
+        mockMvc.perform(get(url)).andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "MISS"));
+        long before = catalogVersion.current();
+
+        // what a catalog write committed by another instance leaves behind
+        jdbcTemplate.update("insert into catalog_version_entry (id) values (next value for catalog_version_entry_seq)");
+        mockMvc.perform(get(url)).andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "HIT"));
+        catalogVersion.poll();
+
+        assertThat(catalogVersion.current()).isEqualTo(before + 1);
+        mockMvc.perform(get(url)).andExpect(header().string(ResponseCacheFilter.CACHE_HEADER, "MISS"));
+    }
+
+    @Test
+    void pollFoldsEntriesIntoTheCounter() {
+        categoryService.addCategory(new Category("folded"));
+        long version = catalogVersion.current();
+
+        catalogVersion.poll();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from catalog_version_entry", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select version from catalog_version_counter", Long.class)).isEqualTo(version);
+        catalogVersion.poll();
+        assertThat(catalogVersion.current()).isEqualTo(version);
+    }
+
+    @Test
+    void gzipIsServedOnlyWhenAccepted() throws Exception {
+        String url = LISTING + "&gzip=";
+        String plain = mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+
+        MvcResult compressed = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+        byte[] body = compressed.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+        mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void unchangedListingIsNotModified() throws Exception {
+        String url = LISTING + "&etag=";
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        StatementCounter.reset();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+        assertThat(StatementCounter.count()).isZero();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "W/\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void listingIsNotModifiedAfterItsEntryIsGone() throws Exception {
+        String url = LISTING + "&evicted=";
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        responseCache.clear();
+
+        StatementCounter.reset();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        assertThat(StatementCounter.count()).isZero();
+    }
+
+    @Test
+    void productETagFollowsItsVersion() throws Exception {
+        Product product = productRepository.findByBrandAndName("CachedBrand", "cached-1").get(0);
+        String url = "/api/v1/product/id/" + product.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        StatementCounter.reset();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(StatementCounter.count()).isZero();
+
+        inventoryService.reserve(reservation(product.getId()));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.inventory").value(4));
+    }
+
+    @Test
+    void unchangedProductIsAnsweredFromItsVersionsAlone() throws Exception {
+        Product product = productRepository.findByBrandAndName("CachedBrand", "cached-3").get(0);
+        String url = "/api/v1/product/id/" + product.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        productDtoCache.invalidate(product.getId());
+
+        StatementCounter.reset();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        // the version query, neither the product row nor its images
+        assertThat(StatementCounter.statements()).singleElement()
+                .satisfies(sql -> assertThat(sql).doesNotContainIgnoringCase("image").doesNotContainIgnoringCase("description"));
+    }
+
+    @Test
+    void productETagIgnoresUnrelatedCatalogWrites() throws Exception {
+        Product product = productRepository.findByBrandAndName("CachedBrand", "cached-2").get(0);
+        String url = "/api/v1/product/id/" + product.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        categoryService.addCategory(new Category("unrelated-to-cached-2"));
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void productETagFollowsItsCategory() throws Exception {
+        Category category = categoryService.addCategory(new Category("renamed-under-cached"));
+        Product product = productRepository.save(
+                new Product("cached-renamed", "CachedBrand", BigDecimal.TEN, 5, "description", category));
+        String url = "/api/v1/product/id/" + product.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        categoryService.updateCategory(new Category("renamed-over-cached"), category.getId());
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.category.name").value("renamed-over-cached"));
+    }
+
+    private static InventoryRequest reservation(Long productId) {
+        InventoryRequest request = new InventoryRequest();
+        request.setItems(List.of(new InventoryItem(productId, 1)));
+        return request;
+    }
+}
@@ -0,0 +1,131 @@
+package com.project.ecommerceapp.controller;
+
+import com.project.ecommerceapp.config.BoundedDataSource;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.ImageBlob;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ImageBlobRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import javax.sql.rowset.serial.SerialBlob;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    Opt-in virtual thread mode: database work is capped at the pool size, and concurrent downloads,
+    including the migration of legacy blobs, never block a virtual thread while it is pinned to its carrier
+    (JFR jdk.VirtualThreadPinned, recorded from the first occurrence).
+*/
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@AutoConfigureMockMvc
+class VirtualThreadModeTests {
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Test
+    void databaseWorkIsCappedAtPoolSize() throws Exception {
+        BoundedDataSource bounded = dataSource.unwrap(BoundedDataSource.class);
+        assertThat(bounded.getMaxPermits()).isEqualTo(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(4);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                counts.add(executor.submit(() -> productRepository.count()));
+            }
+            for (Future<Long> count : counts) {
+                assertThat(count.get()).isNotNegative();
+            }
+        }
+        assertThat(bounded.getAvailablePermits()).isEqualTo(4);
+        assertThat(bounded.getWaiting()).isZero();
+    }
+
+    @Test
+    void downloadsDoNotPinCarrierThreadsInApplicationCode() throws Exception {
+        Category category = categoryRepository.save(new Category("virtual-threads"));
+        Product product = productRepository.save(new Product("pinning", "pinning", BigDecimal.ONE, 1, "pinning", category));
+        List<Long> imageIds = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            byte[] content = new byte[64 * 1024];
+            random.nextBytes(content);
+            Image image = new Image();
+            image.setFileName("legacy-" + i + ".bin");
+            image.setFileType("application/octet-stream");
+            image.setProduct(product);
+            Long id = imageRepository.save(image).getId();
+            ImageBlob legacy = new ImageBlob();
+            legacy.setId(id);
+            legacy.setImage(new SerialBlob(content));
+            imageBlobRepository.save(legacy);
+            imageIds.add(id);
+        }
+
+        ConcurrentLinkedQueue<RecordedEvent> pinned = new ConcurrentLinkedQueue<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> downloads = new ArrayList<>();
+                for (int i = 0; i < REQUESTS; i++) {
+                    Long id = imageIds.get(i % imageIds.size());
+                    downloads.add(executor.submit(() -> mockMvc.perform(get("/api/v1/images/download/" + id)).andExpect(status().isOk())));
+                }
+                for (Future<?> download : downloads) {
+                    download.get();
+                }
+            }
+            recording.stop();
+        }
+
+        assertThat(pinned).map(VirtualThreadModeTests::describe).isEmpty();
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining(" <- "));
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.ecommerceapp.load;
+
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+    Seeds load.products products (two images each) with plain JDBC batches before the application reports ready,
+    so the search index and the caches start from the full catalog.
+    All image rows share one stored picture, content is deduplicated by ImageStorage anyway.
+    The ids of the seeded images are kept for the requests that address an image, see imageIds().
+*/
+@Slf4j
+@RequiredArgsConstructor
+class CatalogSeeder implements ApplicationRunner {
+    static final int CATEGORIES = 50;
+    static final int BRANDS = 200;
+    static final String[] WORDS = {"wireless", "leather", "organic", "steel", "compact", "vintage", "portable", "smart",
+            "cotton", "ceramic", "outdoor", "gaming", "kids", "premium", "classic", "travel"};
+    private static final int BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStorage imageStorage;
+    private final Environment environment;
+    private volatile long[] imageIds = new long[0];
+
+    static int products(Environment environment) {
+        return environment.getProperty("load.products", Integer.class, 1000);
+    }
+
+    static String brand(long i) {
+        return "brand-" + (i % BRANDS);
+    }
+
+    static String name(long i) {
+        return "product " + WORDS[(int) (i % WORDS.length)];
+    }
+
+    static String category(long i) {
+        return "category-" + (i % CATEGORIES);
+    }
+
+    // the ids of the seeded image rows, empty until run() is done
+    long[] imageIds() {
+        return imageIds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        int products = products(environment);
+        long started = System.nanoTime();
+        String key = imageStorage.store(new ByteArrayInputStream(png())).getKey();
+        long size = imageStorage.locate(key).toFile().length();
+
+        List<Object[]> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(new Object[]{i + 1L, category(i)});
+        }
+        jdbcTemplate.batchUpdate("insert into category (id, name) values (?, ?)", categories);
+
+        Random random = new Random(7);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> productRows = new ArrayList<>(BATCH);
+        List<Object[]> imageRows = new ArrayList<>(2 * BATCH);
+        long[] seededImageIds = new long[2 * products];
+        int images = 0;
+        for (long id = 1; id <= products; id++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " product number " + id;
+            productRows.add(new Object[]{id, name(id), brand(id),
+                    BigDecimal.valueOf(100 + random.nextInt(100_000), 2), random.nextInt(20), description, id % CATEGORIES + 1});
+            for (int j = 0; j < 2; j++) {
+                long imageId = 2 * id - 1 + j;
+                imageRows.add(new Object[]{imageId, "image-" + j + ".png", "image/png", key, size, now, id});
+                seededImageIds[images++] = imageId;
+            }
+            if (productRows.size() == BATCH || id == products) {
+                insert(productRows, imageRows);
+            }
+        }
+        // keep the sequences clear of the seeded ids
+        jdbcTemplate.execute("alter sequence category_seq restart with " + (CATEGORIES + 1000));
+        jdbcTemplate.execute("alter sequence product_seq restart with " + (products + 1000L));
+        jdbcTemplate.execute("alter sequence image_seq restart with " + (2L * products + 1000));
+        imageIds = seededImageIds;
+        log.warn("Seeded {} products in {} ms", products, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void insert(List<Object[]> productRows, List<Object[]> imageRows) {
+        jdbcTemplate.batchUpdate("insert into product (id, name, brand, price, inventory, description, category_id) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", productRows);
+        jdbcTemplate.batchUpdate("insert into image (id, file_name, file_type, storage_key, size, last_modified, product_id) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", imageRows);
+        productRows.clear();
+        imageRows.clear();
+    }
+
+    static byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 255 / image.getWidth()) << 16 | (y * 255 / image.getHeight()) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,479 @@
+package com.project.ecommerceapp.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import com.project.ecommerceapp.service.search.ProductSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    Latency regression suite for the product, category and image endpoints, excluded from the normal build.
+    Run with: mvn -Pload test [-Dload.products=100000] [-Dload.threads=32] [-Dload.duration=60s]
+    The application runs on H2 in PostgreSQL mode behind the real Tomcat, seeded by CatalogSeeder.
+    load.threads clients send a weighted mix of reads and writes for load.warmup + load.duration;
+    the per-endpoint histograms of the measured part are written to target/load-report.txt.
+    Deletes, releases and demotions only act on what the run created, reserved or promoted itself,
+    so the seeded catalog the reads pick from stays intact.
+    The test fails when an endpoint's p50 or p99 exceeds load.threshold.p50 / load.threshold.p99
+    (per endpoint: load.threshold.<endpoint>.p99) or its error rate exceeds load.max-error-rate.
+    Without a threshold set, the limits are 250 ms / 2 s for up to 4 clients per core (16 clients on 4 cores),
+    and grow in proportion above that, since the clients then mostly queue for the CPU (x4 for 16 clients on 1 core).
+*/
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;"
+                // PostgreSQL mode does not know the blob type Hibernate generates for the legacy image column
+                + "INIT=CREATE DOMAIN IF NOT EXISTS blob AS BINARY LARGE OBJECT",
+        "spring.jpa.show-sql=false",
+        "image.storage.root=target/load-data/images",
+        "image.variant.cache-dir=target/load-data/variants",
+        "inventory.hot.enabled=true",
+        "inventory.hot.journal-dir=target/load-data/inventory-journal",
+        "logging.level.root=warn"
+})
+@Import(EndpointLoadTests.Seeding.class)
+class EndpointLoadTests {
+    private static final long[] DISTRIBUTION_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+    private static final Duration DEFAULT_P50 = Duration.ofMillis(250);
+    private static final Duration DEFAULT_P99 = Duration.ofSeconds(2);
+    private static final int CLIENTS_PER_CORE = 4;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private ProductSearchService productSearchService;
+    @Autowired
+    private CatalogSeeder catalogSeeder;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private int products;
+    private long[] imageIds;
+    private byte[] uploadImage;
+    // what the run created, reserved or promoted, for the requests that undo it
+    private final ConcurrentLinkedQueue<Long> createdProducts = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> createdImages = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> createdCategories = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> reservedProducts = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> hotProducts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong names = new AtomicLong();
+
+    @TestConfiguration
+    static class Seeding {
+        @Bean
+        CatalogSeeder catalogSeeder(JdbcTemplate jdbcTemplate, ImageStorage imageStorage, Environment environment) {
+            return new CatalogSeeder(jdbcTemplate, imageStorage, environment);
+        }
+    }
+
+    @Test
+    void endpointsStayWithinLatencyThresholds() throws Exception {
+        products = CatalogSeeder.products(environment);
+        imageIds = catalogSeeder.imageIds();
+        uploadImage = CatalogSeeder.png();
+        int threads = environment.getProperty("load.threads", Integer.class, 16);
+        Duration warmup = environment.getProperty("load.warmup", Duration.class, Duration.ofSeconds(5));
+        Duration duration = environment.getProperty("load.duration", Duration.class, Duration.ofSeconds(30));
+        awaitSearchIndex();
+
+        List<Endpoint> endpoints = endpoints();
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> histograms.put(endpoint.key, new LatencyHistogram()));
+        int totalWeight = endpoints.stream().mapToInt(endpoint -> endpoint.weight).sum();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                clients.add(pool.submit(() -> drive(client, endpoints, totalWeight, histograms, measureFrom, end)));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double scale = Math.max(1, (double) threads / (CLIENTS_PER_CORE * cores));
+        String report = report(histograms, threads, cores, duration);
+        log.info("Load report:\n{}", report);
+        Files.writeString(Path.of("target", "load-report.txt"), report);
+        assertThat(violations(histograms, scale)).isEmpty();
+    }
+
+    private void drive(HttpClient client, List<Endpoint> endpoints, int totalWeight,
+                       Map<String, LatencyHistogram> histograms, long measureFrom, long end) {
+        Random random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            Endpoint endpoint = pick(endpoints, totalWeight, random);
+            Call call = endpoint.call.apply(random);
+            if (call == null) {
+                // nothing to act on yet, e.g. no product created that could be deleted
+                continue;
+            }
+            long started = System.nanoTime();
+            boolean error;
+            try {
+                HttpResponse<String> response = client.send(call.request, call.onSuccess == null
+                        ? HttpResponse.BodyHandlers.replacing("") : HttpResponse.BodyHandlers.ofString());
+                int status = response.statusCode();
+                error = status >= 400 && status != call.tolerated;
+                if (status < 300 && call.onSuccess != null) {
+                    call.onSuccess.accept(objectMapper.readTree(response.body()).path("data"));
+                }
+            } catch (IOException e) {
+                error = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (started >= measureFrom) {
+                histograms.get(endpoint.key).record(System.nanoTime() - started, error);
+            }
+        }
+    }
+
+    private static Endpoint pick(List<Endpoint> endpoints, int totalWeight, Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            ticket -= endpoint.weight;
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    // every mapping of the product, category, image and inventory controllers, except the baseline
+    // GET /product/{name} and /product/{category}, and GET /category/{id} and /category/{name}:
+    // each pair is the same pattern, so Spring rejects every request to them as ambiguous
+    private List<Endpoint> endpoints() {
+        return List.of(
+                new Endpoint("product-list", 12, random -> get("/product/?size=20")),
+                new Endpoint("product-by-id", 25, random -> get("/product/id/" + productId(random))),
+                new Endpoint("product-by-brand", 8, random -> get("/product/brand?brand=" + CatalogSeeder.brand(random.nextInt(CatalogSeeder.BRANDS)))),
+                new Endpoint("product-by-brand-and-name", 2, random -> {
+                    long id = productId(random);
+                    return get("/product/brand-and-name?brandName=" + CatalogSeeder.brand(id) + "&productName=" + CatalogSeeder.name(id).replace(' ', '+'));
+                }),
+                new Endpoint("product-by-category-and-brand", 5, random -> {
+                    long id = productId(random);
+                    return get("/product/category-and-brand?category=" + CatalogSeeder.category(id) + "&brandName=" + CatalogSeeder.brand(id));
+                }),
+                new Endpoint("product-filter", 8, random -> get("/product/filter?category=" + CatalogSeeder.category(random.nextInt(CatalogSeeder.CATEGORIES))
+                        + "&minPrice=10&maxPrice=500&inStock=true")),
+                new Endpoint("product-search", 8, random -> get("/product/search?q=" + word(random) + "+" + word(random))),
+                new Endpoint("product-count", 3, random -> get("/product/count?brand=" + CatalogSeeder.brand(random.nextInt(CatalogSeeder.BRANDS))
+                        + "&name=product+" + word(random))),
+                new Endpoint("product-stats", 1, random -> random.nextBoolean() ? get("/product/stats")
+                        : get("/product/stats?category=" + CatalogSeeder.category(random.nextInt(CatalogSeeder.CATEGORIES)))),
+                new Endpoint("product-cache-stats", 1, random -> get("/product/cache/stats")),
+                new Endpoint("product-export", 1, random -> get("/product/export?format=" + (random.nextBoolean() ? "ndjson" : "csv"))),
+                new Endpoint("product-create", 6, random -> send("POST", "/product/", productJson(random))
+                        .then(data -> createdProducts.add(data.path("id").asLong()))),
+                new Endpoint("product-update", 3, random -> send("PUT", "/product/" + productId(random) + "/update", productJson(random))),
+                new Endpoint("product-delete", 2, random -> {
+                    Long id = createdProducts.poll();
+                    return id == null ? null : send("DELETE", "/product/" + id, "");
+                }),
+                new Endpoint("product-import", 1, random -> random.nextBoolean()
+                        ? send("POST", "/product/import", "[" + productJson(random) + "," + productJson(random) + "]")
+                        : send("POST", "/product/import", "text/csv", "name,brand,price,inventory,description,category\n"
+                                + productCsv(random) + productCsv(random))),
+                new Endpoint("product-bulk-update", 1, random -> send("POST", "/product/bulk/update",
+                        "{\"brand\":\"" + CatalogSeeder.brand(random.nextInt(CatalogSeeder.BRANDS)) + "\",\"inventoryDelta\":1}")),
+                new Endpoint("product-bulk-delete", 1, random -> {
+                    List<Long> ids = new ArrayList<>();
+                    Long id;
+                    while (ids.size() < 2 && (id = createdProducts.poll()) != null) {
+                        ids.add(id);
+                    }
+                    return ids.isEmpty() ? null : send("POST", "/product/bulk/delete", "{\"ids\":" + ids + "}");
+                }),
+                new Endpoint("category-list", 5, random -> get("/category/")),
+                new Endpoint("category-cache-stats", 1, random -> get("/category/cache/stats")),
+                new Endpoint("category-create", 1, random -> send("POST", "/category/", categoryJson())
+                        .then(data -> createdCategories.add(data.path("id").asLong()))),
+                new Endpoint("category-update", 1, random -> {
+                    Long id = createdCategories.poll();
+                    return id == null ? null : send("PUT", "/category/" + id, categoryJson()).then(data -> createdCategories.add(id));
+                }),
+                new Endpoint("category-delete", 1, random -> {
+                    Long id = createdCategories.poll();
+                    return id == null ? null : send("DELETE", "/category/" + id, "");
+                }),
+                new Endpoint("image-download", 8, random -> get("/images/download/" + imageId(random))),
+                new Endpoint("image-variant", 4, random -> get("/images/" + imageId(random) + "/variant?w=320")
+                        // the variant endpoint sheds load with 503 on purpose, that is not a failure
+                        .tolerating(503)),
+                new Endpoint("image-upload", 2, random -> upload("POST", "/images/", "files", productId(random))
+                        .then(data -> data.forEach(image -> createdImages.add(image.path("id").asLong())))),
+                new Endpoint("image-update", 1, random -> upload("PUT", "/images/" + imageId(random), "file", null)),
+                new Endpoint("image-delete", 1, random -> {
+                    Long id = createdImages.poll();
+                    return id == null ? null : send("DELETE", "/images/" + id, "");
+                }),
+                new Endpoint("inventory-reserve", 4, random -> {
+                    long id = productId(random);
+                    return send("POST", "/inventory/reserve", inventoryJson(id))
+                            .then(data -> reservedProducts.add(id))
+                            // out of stock is an answer, not a failure
+                            .tolerating(409);
+                }),
+                new Endpoint("inventory-release", 2, random -> {
+                    Long id = reservedProducts.poll();
+                    return id == null ? null : send("POST", "/inventory/release", inventoryJson(id));
+                }),
+                new Endpoint("inventory-commit", 2, random -> {
+                    Long id = reservedProducts.poll();
+                    return id == null ? null : send("POST", "/inventory/commit", inventoryJson(id));
+                }),
+                new Endpoint("inventory-hot", 1, random -> get("/inventory/hot")),
+                new Endpoint("inventory-promote", 1, random -> {
+                    long id = productId(random);
+                    return send("POST", "/inventory/hot/" + id, "")
+                            .then(data -> hotProducts.add(id))
+                            // a product demoted a moment ago is still cooling down
+                            .tolerating(409);
+                }),
+                new Endpoint("inventory-demote", 1, random -> {
+                    Long id = hotProducts.poll();
+                    return id == null ? null : send("DELETE", "/inventory/hot/" + id, "");
+                })
+        );
+    }
+
+    private long productId(Random random) {
+        return 1 + random.nextInt(products);
+    }
+
+    private long imageId(Random random) {
+        return imageIds[random.nextInt(imageIds.length)];
+    }
+
+    private static String word(Random random) {
+        return CatalogSeeder.WORDS[random.nextInt(CatalogSeeder.WORDS.length)];
+    }
+
+    private static String productJson(Random random) {
+        return String.format(Locale.ROOT, "{\"name\":\"product %s\",\"brand\":\"%s\",\"price\":%d.99,\"inventory\":%d,"
+                        + "\"description\":\"%s load test product\",\"category\":{\"name\":\"%s\"}}",
+                word(random), CatalogSeeder.brand(random.nextInt(CatalogSeeder.BRANDS)), random.nextInt(500),
+                random.nextInt(20), word(random), CatalogSeeder.category(random.nextInt(CatalogSeeder.CATEGORIES)));
+    }
+
+    private static String productCsv(Random random) {
+        return String.format(Locale.ROOT, "product %s,%s,%d.99,%d,%s load test product,%s%n",
+                word(random), CatalogSeeder.brand(random.nextInt(CatalogSeeder.BRANDS)), random.nextInt(500),
+                random.nextInt(20), word(random), CatalogSeeder.category(random.nextInt(CatalogSeeder.CATEGORIES)));
+    }
+
+    // unique, category names may not repeat
+    private String categoryJson() {
+        return "{\"name\":\"load-category-" + names.incrementAndGet() + "\"}";
+    }
+
+    private static String inventoryJson(long productId) {
+        return "{\"items\":[{\"productId\":" + productId + ",\"quantity\":1}]}";
+    }
+
+    private Call get(String path) {
+        return new Call(HttpRequest.newBuilder(uri(path)).GET().build());
+    }
+
+    private Call send(String method, String path, String json) {
+        return send(method, path, "application/json", json);
+    }
+
+    private Call send(String method, String path, String contentType, String body) {
+        return new Call(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", contentType)
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    // multipart with the picture as the given part, and the productId part when there is one
+    private Call upload(String method, String path, String part, Long productId) {
+        String boundary = "load-boundary";
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (productId != null) {
+            body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"productId\"\r\n\r\n" + productId + "\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+        }
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + part + "\"; filename=\"upload.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(uploadImage);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return new Call(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + environment.getProperty("api.prefix") + path);
+    }
+
+    private void awaitSearchIndex() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(10).toNanos();
+        while (productSearchService.search("product", 1).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+    }
+
+    private String report(Map<String, LatencyHistogram> histograms, int threads, int cores, Duration duration) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Load report: %d products, %d clients on %d cores, %s measured%n%n",
+                products, threads, cores, duration));
+        report.append(String.format(Locale.ROOT, "%-30s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append(String.format(Locale.ROOT, "%-30s %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), histogram.count(), histogram.errors(), histogram.count() / (double) duration.toSeconds(),
+                    millis(histogram.percentileMicros(50)), millis(histogram.percentileMicros(90)),
+                    millis(histogram.percentileMicros(99)), millis(histogram.percentileMicros(99.9)),
+                    millis(histogram.maxMicros())));
+        }
+        report.append(String.format(Locale.ROOT, "%nCumulative distribution (share of requests at or below)%n%-30s", "endpoint"));
+        for (long bound : DISTRIBUTION_MILLIS) {
+            report.append(String.format(Locale.ROOT, " %7s", "<=" + bound + "ms"));
+        }
+        report.append(System.lineSeparator());
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append(String.format(Locale.ROOT, "%-30s", entry.getKey()));
+            for (long bound : DISTRIBUTION_MILLIS) {
+                double share = histogram.count() == 0 ? 0 : 100.0 * histogram.countAtOrBelow(bound * 1000) / histogram.count();
+                report.append(String.format(Locale.ROOT, " %6.1f%%", share));
+            }
+            report.append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    // scale: how far the default limits are stretched for a host with fewer cores than clients / CLIENTS_PER_CORE
+    private List<String> violations(Map<String, LatencyHistogram> histograms, double scale) {
+        double maxErrorRate = environment.getProperty("load.max-error-rate", Double.class, 0.01);
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.count() == 0) {
+                violations.add(key + ": no requests measured");
+                continue;
+            }
+            checkPercentile(violations, key, histogram, "p50", 50, scaled(DEFAULT_P50, scale));
+            checkPercentile(violations, key, histogram, "p99", 99, scaled(DEFAULT_P99, scale));
+            double errorRate = (double) histogram.errors() / histogram.count();
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format(Locale.ROOT, "%s: error rate %.2f%% above %.2f%%", key, errorRate * 100, maxErrorRate * 100));
+            }
+        }
+        return violations;
+    }
+
+    private void checkPercentile(List<String> violations, String key, LatencyHistogram histogram,
+                                 String name, double percentile, Duration fallback) {
+        Duration limit = environment.getProperty("load.threshold." + key + "." + name, Duration.class,
+                environment.getProperty("load.threshold." + name, Duration.class, fallback));
+        long micros = histogram.percentileMicros(percentile);
+        if (micros > limit.toNanos() / 1000) {
+            violations.add(String.format(Locale.ROOT, "%s: %s %.2f ms above %d ms", key, name, millis(micros), limit.toMillis()));
+        }
+    }
+
+    private static Duration scaled(Duration limit, double scale) {
+        return Duration.ofNanos(Math.round(limit.toNanos() * scale));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Endpoint {
+        private final String key;
+        private final int weight;
+        // null when there is nothing to act on yet
+        private final Function<Random, Call> call;
+
+        private Endpoint(String key, int weight, Function<Random, Call> call) {
+            this.key = key;
+            this.weight = weight;
+            this.call = call;
+        }
+    }
+
+    private static final class Call {
+        private final HttpRequest request;
+        // gets the data of a 2xx response
+        private final Consumer<JsonNode> onSuccess;
+        // an error status that is an expected answer of this endpoint
+        private final int tolerated;
+
+        private Call(HttpRequest request) {
+            this(request, null, 0);
+        }
+
+        private Call(HttpRequest request, Consumer<JsonNode> onSuccess, int tolerated) {
+            this.request = request;
+            this.onSuccess = onSuccess;
+            this.tolerated = tolerated;
+        }
+
+        private Call then(Consumer<JsonNode> onSuccess) {
+            return new Call(request, onSuccess, tolerated);
+        }
+
+        private Call tolerating(int status) {
+            return new Call(request, onSuccess, status);
+        }
+    }
+}
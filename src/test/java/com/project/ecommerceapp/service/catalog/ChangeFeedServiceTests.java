@@ -0,0 +1,172 @@
+package com.project.ecommerceapp.service.catalog;
+
+import com.project.ecommerceapp.dto.ChangePage;
+import com.project.ecommerceapp.model.CatalogChange;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.request.AddProductRequest;
+import com.project.ecommerceapp.request.BulkUpdateRequest;
+import com.project.ecommerceapp.request.UpdateProductRequest;
+import com.project.ecommerceapp.service.product.ProductBulkService;
+import com.project.ecommerceapp.service.product.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.project.ecommerceapp.model.ChangeOp.DELETE;
+import static com.project.ecommerceapp.model.ChangeOp.UPSERT;
+import static com.project.ecommerceapp.model.ChangeType.CATEGORY;
+import static com.project.ecommerceapp.model.ChangeType.PRODUCT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ChangeFeedServiceTests {
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductBulkService productBulkService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writesAppearInOrderWithTheirVersions() {
+        long start = latest();
+        Product product = productService.addProduct(request("ChangeFeedBrand", "change-feed-new"));
+        productService.updateProduct(update(product), product.getId());
+        productService.deleteProductById(product.getId());
+
+        List<CatalogChange> changes = changesAfter(start);
+        assertThat(changes).extracting(change -> change.getType() + ":" + change.getOp() + ":" + change.getVersion())
+                .containsExactly(CATEGORY + ":" + UPSERT + ":null", PRODUCT + ":" + UPSERT + ":0",
+                        PRODUCT + ":" + UPSERT + ":1", PRODUCT + ":" + DELETE + ":1");
+    }
+
+    @Test
+    void compactionKeepsTheNewestChangePerEntity() {
+        long start = latest();
+        Product product = productService.addProduct(request("ChangeFeedCompact", "change-feed-compact"));
+        for (int i = 0; i < 3; i++) {
+            BulkUpdateRequest bulk = new BulkUpdateRequest();
+            bulk.setIds(List.of(product.getId()));
+            bulk.setInventoryDelta(1);
+            productBulkService.updateProducts(bulk);
+        }
+        assertThat(changesAfter(start)).filteredOn(change -> change.getType() == PRODUCT).hasSize(4);
+
+        changeFeedService.compact();
+
+        assertThat(changesAfter(start)).filteredOn(change -> change.getType() == PRODUCT)
+                .extracting(CatalogChange::getVersion).containsExactly(3L);
+    }
+
+    @Test
+    void pagesFollowTheNextPosition() {
+        long start = latest();
+        for (int i = 0; i < 5; i++) {
+            productService.addProduct(request("ChangeFeedPaging", "change-feed-" + i));
+        }
+        changeFeedService.publish();
+        ChangePage first = changeFeedService.getChanges(start, 4);
+        ChangePage second = changeFeedService.getChanges(first.getNext(), 4);
+
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getChanges().get(0).getSeq()).isGreaterThan(first.getNext());
+        assertThat(first.getChanges().size() + second.getChanges().size()).isEqualTo(6);
+        assertThat(changeFeedService.getChanges(second.getNext(), 4).getNext()).isEqualTo(second.getNext());
+    }
+
+    @Test
+    void changeCommittedAfterLaterOnesIsNotSkipped() throws Exception {
+        latest();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // a long transaction that inserted its change first and commits last
+            Future<?> slow = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                changeFeedService.record(PRODUCT, -1L, DELETE, null);
+                recorded.countDown();
+                await(commit);
+            }));
+            recorded.await();
+            productService.addProduct(request("ChangeFeedLate", "change-feed-late"));
+            long passed = latest();
+
+            commit.countDown();
+            slow.get();
+            assertThat(changesAfter(passed)).extracting(CatalogChange::getEntityId).containsExactly(-1L);
+        }
+    }
+
+    @Test
+    void recordingOutsideATransactionFails() {
+        assertThatThrownBy(() -> changeFeedService.record(PRODUCT, 1L, UPSERT, 0L))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private long latest() {
+        changeFeedService.publish();
+        long since = 0;
+        ChangePage page;
+        do {
+            page = changeFeedService.getChanges(since, 1000);
+            since = page.getNext();
+        } while (page.isHasMore());
+        return since;
+    }
+
+    private List<CatalogChange> changesAfter(long since) {
+        changeFeedService.publish();
+        List<CatalogChange> changes = new ArrayList<>();
+        ChangePage page;
+        do {
+            page = changeFeedService.getChanges(since, 1000);
+            changes.addAll(page.getChanges());
+            since = page.getNext();
+        } while (page.isHasMore());
+        return changes;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static AddProductRequest request(String category, String name) {
+        AddProductRequest request = new AddProductRequest();
+        request.setName(name);
+        request.setBrand("brand");
+        request.setPrice(BigDecimal.TEN);
+        request.setInventory(5);
+        request.setCategory(new Category(category));
+        return request;
+    }
+
+    private static UpdateProductRequest update(Product product) {
+        UpdateProductRequest update = new UpdateProductRequest();
+        update.setName(product.getName());
+        update.setBrand(product.getBrand());
+        update.setPrice(BigDecimal.ONE);
+        update.setInventory(5);
+        update.setCategory(product.getCategory());
+        return update;
+    }
+}
@@ -0,0 +1,70 @@
+package com.project.ecommerceapp.service.category;
+
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CategoryCacheTests {
+    @Autowired
+    private CategoryCache categoryCache;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void secondReadIsAHit() {
+        // saved past the service, so the cache has not seen it yet
+        Category saved = categoryRepository.save(new Category("cache-read-twice"));
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        Category first = categoryCache.getByName("cache-read-twice");
+        Category second = categoryCache.getByName("cache-read-twice");
+
+        assertThat(first.getId()).isEqualTo(saved.getId());
+        assertThat(second).isSameAs(first);
+        assertThat(gets("miss") - misses).isEqualTo(1);
+        assertThat(gets("hit") - hits).isEqualTo(1);
+    }
+
+    @Test
+    void renameEvictsTheOldName() {
+        Category saved = categoryService.addCategory(new Category("cache-before-rename"));
+        assertThat(categoryCache.getByName("cache-before-rename").getId()).isEqualTo(saved.getId());
+
+        categoryService.updateCategory(new Category("cache-after-rename"), saved.getId());
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        assertThat(categoryCache.getByName("cache-before-rename")).isNull();
+        assertThat(categoryCache.getByName("cache-after-rename").getId()).isEqualTo(saved.getId());
+        assertThat(gets("miss") - misses).isEqualTo(1);
+        assertThat(gets("hit") - hits).isEqualTo(1);
+    }
+
+    @Test
+    void deleteEvictsTheName() {
+        Category saved = categoryService.addCategory(new Category("cache-deleted"));
+        assertThat(categoryCache.getByName("cache-deleted")).isNotNull();
+
+        categoryService.deleteCategoryById(saved.getId());
+        double misses = gets("miss");
+
+        assertThat(categoryCache.getByName("cache-deleted")).isNull();
+        assertThat(gets("miss") - misses).isEqualTo(1);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "category").tag("result", result)
+                .functionCounter().count();
+    }
+}
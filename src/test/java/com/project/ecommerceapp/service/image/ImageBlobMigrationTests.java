@@ -0,0 +1,112 @@
+package com.project.ecommerceapp.service.image;
+
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.repository.ImageBlobRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.service.catalog.CatalogVersion;
+import com.project.ecommerceapp.service.catalog.ChangeFeedService;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import com.project.ecommerceapp.service.image.storage.StoredImage;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ImageBlobMigrationTests {
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+    @Autowired
+    private ImageStorage imageStorage;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unreadableRowIsSkippedAndTheRestMoved() throws Exception {
+        insertLegacy(910001L, "legacy one");
+        insertLegacy(910002L, "broken");
+        insertLegacy(910003L, "legacy three");
+        ImageBlobMigration migration = new ImageBlobMigration(imageRepository, productRepository, imageBlobRepository,
+                new FailingStorage(imageStorage), transactionTemplate, catalogVersion, changeFeedService,
+                entityManagerFactory);
+        ReflectionTestUtils.setField(migration, "batchSize", 2);
+
+        assertThat(migration.migrateAll()).isEqualTo(2);
+
+        Image moved = imageRepository.findById(910001L).orElseThrow();
+        assertThat(moved.getStorageKey()).isNotNull();
+        assertThat(Files.readString(imageStorage.locate(moved.getStorageKey()))).isEqualTo("legacy one");
+        assertThat(imageRepository.findById(910003L).orElseThrow().getStorageKey()).isNotNull();
+        assertThat(imageRepository.findById(910002L).orElseThrow().getStorageKey()).isNull();
+        assertThat(payloadCount(910001L)).isZero();
+        assertThat(payloadCount(910002L)).isEqualTo(1);
+    }
+
+    private void insertLegacy(Long id, String content) {
+        jdbcTemplate.update("insert into image (id, file_name, file_type, image) values (?, ?, ?, ?)",
+                id, id + ".png", "image/png", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int payloadCount(Long id) {
+        return jdbcTemplate.queryForObject("select count(*) from image where id = ? and image is not null",
+                Integer.class, id);
+    }
+
+    // fails on content starting with "broken", as a payload that cannot be read would
+    private record FailingStorage(ImageStorage delegate) implements ImageStorage {
+        @Override
+        public StoredImage store(InputStream content) throws IOException {
+            byte[] bytes = content.readAllBytes();
+            if (new String(bytes, StandardCharsets.UTF_8).startsWith("broken")) {
+                throw new IOException("unreadable payload");
+            }
+            return delegate.store(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public Path locate(String key) throws IOException {
+            return delegate.locate(key);
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return delegate.exists(key);
+        }
+
+        @Override
+        public void delete(String key) throws IOException {
+            delegate.delete(key);
+        }
+
+        @Override
+        public boolean deleteIfStoredBefore(String key, Instant cutoff) throws IOException {
+            return delegate.deleteIfStoredBefore(key, cutoff);
+        }
+    }
+}
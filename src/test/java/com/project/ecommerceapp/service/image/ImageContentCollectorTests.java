@@ -0,0 +1,66 @@
+package com.project.ecommerceapp.service.image;
+
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ImageContentCollectorTests {
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ImageStorage imageStorage;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void unreferencedContentGoesAfterTheGracePeriod() throws Exception {
+        String key = store("collected content");
+        ImageContentCollector collector = new ImageContentCollector(imageRepository, imageStorage, Duration.ZERO, 100);
+
+        collector.release(key);
+
+        assertThat(collector.sweep()).isEqualTo(1);
+        assertThat(imageStorage.exists(key)).isFalse();
+    }
+
+    @Test
+    void contentStoredAgainWithinTheGracePeriodStays() throws Exception {
+        String key = store("reused content");
+        ImageContentCollector collector = new ImageContentCollector(imageRepository, imageStorage, Duration.ofHours(1), 100);
+        collector.release(key);
+        // an identical upload whose row is not committed yet
+        store("reused content");
+
+        assertThat(collector.sweep()).isZero();
+        assertThat(imageStorage.exists(key)).isTrue();
+    }
+
+    @Test
+    void contentOfARolledBackDeleteStays() throws Exception {
+        String key = store("rolled back content");
+        ImageContentCollector collector = new ImageContentCollector(imageRepository, imageStorage, Duration.ZERO, 100);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            collector.release(key);
+            status.setRollbackOnly();
+        });
+
+        assertThat(collector.sweep()).isZero();
+        assertThat(imageStorage.exists(key)).isTrue();
+    }
+
+    private String store(String content) throws Exception {
+        return imageStorage.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))).getKey();
+    }
+}
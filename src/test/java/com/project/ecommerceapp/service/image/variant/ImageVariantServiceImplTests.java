@@ -0,0 +1,85 @@
+package com.project.ecommerceapp.service.image.variant;
+
+import com.project.ecommerceapp.service.image.storage.ImageStorage;
+import com.project.ecommerceapp.service.image.storage.StoredImage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantServiceImplTests {
+    @TempDir
+    private Path dir;
+
+    @Test
+    void pregenerationIsQueuedAfterTheCommitAndOverflowIsCounted() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // one thread and one queue slot: of the four preset widths one runs, one waits and two are dropped
+        ImageVariantServiceImpl service = new ImageVariantServiceImpl(new BlockingStorage(release),
+                List.of(160, 320, 640, 1280), "jpeg", 1, 1, Duration.ofSeconds(10), 25_000_000,
+                dir.toString(), DataSize.ofMegabytes(1), Duration.ZERO, meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.pregenerate("key");
+            assertThat(dropped(meterRegistry)).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(dropped(meterRegistry)).isEqualTo(2);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    private static double dropped(MeterRegistry meterRegistry) {
+        return meterRegistry.get("image.variant.pregenerate.dropped").counter().count();
+    }
+
+    // holds every resize until released, then reports the original as missing
+    private record BlockingStorage(CountDownLatch release) implements ImageStorage {
+        @Override
+        public StoredImage store(InputStream content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Path locate(String key) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new NoSuchFileException(key);
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return false;
+        }
+
+        @Override
+        public void delete(String key) {
+        }
+
+        @Override
+        public boolean deleteIfStoredBefore(String key, Instant cutoff) {
+            return false;
+        }
+    }
+}
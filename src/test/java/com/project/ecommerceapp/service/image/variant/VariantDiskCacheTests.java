@@ -0,0 +1,61 @@
+package com.project.ecommerceapp.service.image.variant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VariantDiskCacheTests {
+    @TempDir
+    private Path dir;
+
+    @Test
+    void evictedFileStaysReadableDuringTheGrace() throws IOException {
+        VariantDiskCache cache = new VariantDiskCache(dir, 10, Duration.ofMinutes(1));
+        cache.put("a", out -> out.write(new byte[8]));
+        Path resolved = cache.get("a");
+
+        cache.put("b", out -> out.write(new byte[8]));
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(Files.readAllBytes(resolved)).hasSize(8);
+        assertThat(cache.size()).isEqualTo(8);
+    }
+
+    @Test
+    void evictedFileIsDeletedAfterTheGrace() throws IOException {
+        VariantDiskCache cache = new VariantDiskCache(dir, 10, Duration.ZERO);
+        cache.put("a", out -> out.write(new byte[8]));
+        cache.put("b", out -> out.write(new byte[8]));
+
+        assertThat(dir.resolve("a")).doesNotExist();
+        assertThat(dir.resolve("b")).exists();
+    }
+
+    @Test
+    void storingAgainCancelsThePendingDelete() throws IOException {
+        VariantDiskCache cache = new VariantDiskCache(dir, 10, Duration.ofMillis(50));
+        cache.put("a", out -> out.write(new byte[8]));
+        cache.put("b", out -> out.write(new byte[8]));
+        cache.put("a", out -> out.write(new byte[4]));
+
+        sleep(100);
+        cache.get("b");
+
+        assertThat(dir.resolve("a")).hasSize(4);
+        assertThat(cache.get("a")).isNotNull();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.ecommerceapp.service.inventory;
+
+import com.project.ecommerceapp.dto.InventoryResult;
+import com.project.ecommerceapp.dto.InventoryStatus;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.InventoryLease;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.InventoryCheckpointRepository;
+import com.project.ecommerceapp.repository.InventoryLeaseRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.InventoryItem;
+import com.project.ecommerceapp.request.InventoryRequest;
+import com.project.ecommerceapp.service.product.ProductDtoCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "inventory.hot.enabled=true",
+        "inventory.hot.detect-threshold=0",
+        "inventory.hot.flush-interval=PT1H"
+})
+class HotInventoryTests {
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private HotInventory hotInventory;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private InventoryCheckpointRepository checkpointRepository;
+    @Autowired
+    private InventoryLeaseRepository leaseRepository;
+    @Autowired
+    private ProductDtoCache productDtoCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentHotReservationsNeverOversell() throws Exception {
+        Product product = product(50);
+        inventoryService.promote(product.getId());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getInventory()).isZero();
+
+        List<Future<InventoryResult>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> inventoryService.reserve(request(false, new InventoryItem(product.getId(), 1)))));
+            }
+        }
+        long applied = 0;
+        for (Future<InventoryResult> result : results) {
+            applied += result.get().isSuccess() ? 1 : 0;
+        }
+        hotInventory.flush();
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(applied).isEqualTo(50);
+        assertThat(stored.getAvailable()).isZero();
+        assertThat(stored.getReserved()).isEqualTo(50);
+        inventoryService.demote(product.getId());
+    }
+
+    @Test
+    void demoteReturnsTheLease() {
+        Product product = product(20);
+        inventoryService.promote(product.getId());
+        inventoryService.reserve(request(false, new InventoryItem(product.getId(), 5)));
+        inventoryService.commit(request(false, new InventoryItem(product.getId(), 2)));
+
+        inventoryService.demote(product.getId());
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(stored.getInventory()).isEqualTo(15);
+        assertThat(stored.getHeld()).isZero();
+        assertThat(stored.getReserved()).isEqualTo(3);
+        assertThat(inventoryService.getHotProducts()).isEmpty();
+        // back on the SQL statements
+        assertThat(inventoryService.reserve(request(false, new InventoryItem(product.getId(), 15))).isSuccess()).isTrue();
+    }
+
+    @Test
+    void allOrNothingUndoesTheHotCounter() {
+        Product hot = product(10);
+        Product scarce = product(1);
+        inventoryService.promote(hot.getId());
+
+        InventoryResult result = inventoryService.reserve(request(true,
+                new InventoryItem(hot.getId(), 3), new InventoryItem(scarce.getId(), 2)));
+
+        assertThat(result.getItems()).extracting(item -> item.getStatus())
+                .containsExactly(InventoryStatus.ROLLED_BACK, InventoryStatus.INSUFFICIENT);
+        inventoryService.demote(hot.getId());
+        Product stored = productRepository.findById(hot.getId()).orElseThrow();
+        assertThat(stored.getInventory()).isEqualTo(10);
+        assertThat(stored.getReserved()).isZero();
+    }
+
+    @Test
+    void recoveryAppliesLeftoverJournalOnce(@TempDir Path directory) throws Exception {
+        Product product = product(10);
+        lease(InventoryJournal.id(directory), product.getId(), 10);
+        // a run that reserved 4 and crashed before its flush
+        InventoryJournal journal = new InventoryJournal(directory, 4096, 1, true);
+        journal.append(product.getId(), -3, 3);
+        journal.append(product.getId(), -1, 1);
+        Path segment = InventoryJournal.existing(directory).get(0);
+        Path copy = Files.copy(segment, directory.resolve("copy"));
+
+        restart(directory);
+        Files.move(copy, segment);
+        restart(directory);
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(stored.getInventory()).isEqualTo(6);
+        assertThat(stored.getHeld()).isZero();
+        assertThat(stored.getReserved()).isEqualTo(4);
+        assertThat(InventoryJournal.existing(directory)).hasSize(1);
+    }
+
+    @Test
+    void restartKeepsTheLeasesOfOtherInstances(@TempDir Path directory) {
+        Product product = product(10);
+        lease("other-instance", product.getId(), 6);
+        lease(InventoryJournal.id(directory), product.getId(), 3);
+
+        restart(directory);
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(stored.getInventory()).isEqualTo(4);
+        assertThat(stored.getHeld()).isEqualTo(6);
+        assertThat(leaseRepository.findByJournalAndProductId(InventoryJournal.id(directory), product.getId())).isEmpty();
+    }
+
+    private void lease(String journal, Long productId, int quantity) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productRepository.leaseInventory(productId, quantity);
+            leaseRepository.save(new InventoryLease(journal, productId, quantity));
+        });
+    }
+
+    private void restart(Path directory) {
+        HotInventory restarted = new HotInventory(productRepository, checkpointRepository, leaseRepository, productDtoCache,
+                jdbcTemplate, transactionManager, new SimpleMeterRegistry(), true, 4, directory, DataSize.ofKilobytes(4), true, 0);
+        restarted.recover();
+    }
+
+    private Product product(int inventory) {
+        Category category = categoryRepository.findByName("hot-inventory-tests");
+        if (category == null) {
+            category = categoryRepository.save(new Category("hot-inventory-tests"));
+        }
+        return productRepository.save(new Product("hot", "brand", BigDecimal.TEN, inventory, "hot", category));
+    }
+
+    private static InventoryRequest request(boolean allOrNothing, InventoryItem... items) {
+        InventoryRequest request = new InventoryRequest();
+        request.setAllOrNothing(allOrNothing);
+        request.setItems(List.of(items));
+        return request;
+    }
+}
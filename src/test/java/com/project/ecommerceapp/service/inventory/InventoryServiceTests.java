@@ -0,0 +1,126 @@
+package com.project.ecommerceapp.service.inventory;
+
+import com.project.ecommerceapp.dto.InventoryResult;
+import com.project.ecommerceapp.dto.InventoryStatus;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.InventoryItem;
+import com.project.ecommerceapp.request.InventoryRequest;
+import com.project.ecommerceapp.request.UpdateProductRequest;
+import com.project.ecommerceapp.service.product.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InventoryServiceTests {
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Product product = product(50);
+        int buyers = 200;
+        List<Future<InventoryResult>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < buyers; i++) {
+                results.add(executor.submit(() -> inventoryService.reserve(request(false, new InventoryItem(product.getId(), 1)))));
+            }
+        }
+        long applied = 0;
+        for (Future<InventoryResult> result : results) {
+            applied += result.get().isSuccess() ? 1 : 0;
+        }
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(applied).isEqualTo(50);
+        assertThat(stored.getInventory()).isZero();
+        assertThat(stored.getReserved()).isEqualTo(50);
+    }
+
+    @Test
+    void allOrNothingRollsBackEveryItem() {
+        Product plenty = product(10);
+        Product scarce = product(1);
+
+        InventoryResult result = inventoryService.reserve(request(true,
+                new InventoryItem(plenty.getId(), 3), new InventoryItem(scarce.getId(), 2), new InventoryItem(-1L, 1)));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getItems()).extracting(item -> item.getStatus())
+                .containsExactly(InventoryStatus.NOT_FOUND, InventoryStatus.ROLLED_BACK, InventoryStatus.ROLLED_BACK);
+        assertThat(productRepository.findById(plenty.getId()).orElseThrow().getInventory()).isEqualTo(10);
+    }
+
+    @Test
+    void partialRequestReportsEveryItem() {
+        Product plenty = product(10);
+        Product scarce = product(1);
+
+        InventoryResult result = inventoryService.reserve(request(false,
+                new InventoryItem(plenty.getId(), 2), new InventoryItem(scarce.getId(), 2), new InventoryItem(plenty.getId(), 1)));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getItems()).extracting(item -> item.getProductId() + ":" + item.getQuantity() + ":" + item.getStatus())
+                .containsExactly(plenty.getId() + ":3:APPLIED", scarce.getId() + ":2:INSUFFICIENT");
+
+        inventoryService.release(request(false, new InventoryItem(plenty.getId(), 1)));
+        inventoryService.commit(request(false, new InventoryItem(plenty.getId(), 2)));
+        Product stored = productRepository.findById(plenty.getId()).orElseThrow();
+        assertThat(stored.getInventory()).isEqualTo(8);
+        assertThat(stored.getReserved()).isZero();
+    }
+
+    @Test
+    void staleUpdateDoesNotOverwriteReservation() {
+        Product product = product(10);
+        long readVersion = productRepository.findById(product.getId()).orElseThrow().getVersion();
+        inventoryService.reserve(request(false, new InventoryItem(product.getId(), 4)));
+
+        UpdateProductRequest update = new UpdateProductRequest();
+        update.setName("renamed");
+        update.setBrand("brand");
+        update.setPrice(BigDecimal.TEN);
+        update.setInventory(10);
+        update.setCategory(product.getCategory());
+        update.setVersion(readVersion);
+
+        assertThatThrownBy(() -> productService.updateProduct(update, product.getId()))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getInventory()).isEqualTo(6);
+    }
+
+    private Product product(int inventory) {
+        Category category = categoryRepository.findByName("inventory-tests");
+        if (category == null) {
+            category = categoryRepository.save(new Category("inventory-tests"));
+        }
+        return productRepository.save(new Product("stock", "brand", BigDecimal.TEN, inventory, "stock", category));
+    }
+
+    private static InventoryRequest request(boolean allOrNothing, InventoryItem... items) {
+        InventoryRequest request = new InventoryRequest();
+        request.setAllOrNothing(allOrNothing);
+        request.setItems(List.of(items));
+        return request;
+    }
+}
@@ -0,0 +1,132 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.BulkResult;
+import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Image;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ImageRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.request.BulkDeleteRequest;
+import com.project.ecommerceapp.request.BulkUpdateRequest;
+import com.project.ecommerceapp.service.search.ProductSearchService;
+import com.project.ecommerceapp.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductBulkServiceTests {
+    @Autowired
+    private ProductBulkService productBulkService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Test
+    void deleteByBrandRunsSetBasedStatements() {
+        List<Product> products = seed("BulkDelete", 30);
+
+        StatementCounter.reset();
+        BulkResult result = productBulkService.deleteProducts(new BulkDeleteRequest(null, "BulkDelete", null));
+
+        // ids, storage keys, change feed rows for images and products, delete images, delete products, increment and
+        // read the catalog version: nothing is loaded per product or per image
+        assertThat(StatementCounter.count()).isLessThanOrEqualTo(8);
+        assertThat(result.getProducts()).isEqualTo(30);
+        assertThat(result.getImages()).isEqualTo(60);
+        assertThat(productRepository.findByBrand("BulkDelete")).isEmpty();
+        assertThat(imageRepository.findByProductId(products.get(0).getId())).isEmpty();
+    }
+
+    @Test
+    void deleteByIdRemovesImages() {
+        Product product = seed("BulkDeleteOne", 1).get(0);
+
+        productService.deleteProductById(product.getId());
+
+        assertThat(productRepository.existsById(product.getId())).isFalse();
+        assertThat(imageRepository.findByProductId(product.getId())).isEmpty();
+        assertThatThrownBy(() -> productService.deleteProductById(product.getId())).isInstanceOf(ResourceException.class);
+    }
+
+    @Test
+    void updateAdjustsPriceAndInventory() {
+        Product product = seed("BulkUpdate", 3).get(0);
+        BulkUpdateRequest request = new BulkUpdateRequest();
+        request.setBrand("BulkUpdate");
+        request.setMaxPrice(BigDecimal.TEN);
+        request.setPricePercent(BigDecimal.valueOf(-10));
+        request.setInventoryDelta(-7);
+
+        BulkResult result = productBulkService.updateProducts(request);
+
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(result.getProducts()).isEqualTo(3);
+        assertThat(stored.getPrice()).isEqualByComparingTo("9");
+        assertThat(stored.getInventory()).isZero();
+        assertThat(stored.getVersion()).isEqualTo(product.getVersion() + 1);
+    }
+
+    @Test
+    void repricingUpdatesSearchHits() {
+        seed("BulkReprice", 2);
+        BulkUpdateRequest request = new BulkUpdateRequest();
+        request.setBrand("BulkReprice");
+        request.setPriceDelta(BigDecimal.ONE);
+
+        productBulkService.updateProducts(request);
+
+        assertThat(productSearchService.search("BulkReprice", 10))
+                .hasSize(2)
+                .allSatisfy(hit -> assertThat(hit.getPrice()).isEqualByComparingTo("11"));
+    }
+
+    @Test
+    void emptySelectionIsRejected() {
+        BulkUpdateRequest request = new BulkUpdateRequest();
+        request.setInventory(1);
+
+        assertThatThrownBy(() -> productBulkService.updateProducts(request)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productBulkService.deleteProducts(new BulkDeleteRequest())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Product> seed(String brand, int count) {
+        Category category = categoryRepository.findByName("bulk-tests");
+        if (category == null) {
+            category = categoryRepository.save(new Category("bulk-tests"));
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("bulk", brand, BigDecimal.TEN, 5, "bulk", category));
+        }
+        productRepository.saveAll(products);
+        List<Image> images = new ArrayList<>();
+        for (Product product : products) {
+            for (int i = 0; i < 2; i++) {
+                Image image = new Image();
+                image.setFileName("bulk-" + i + ".png");
+                image.setFileType("image/png");
+                image.setProduct(product);
+                images.add(image);
+            }
+        }
+        imageRepository.saveAll(images);
+        return products;
+    }
+}
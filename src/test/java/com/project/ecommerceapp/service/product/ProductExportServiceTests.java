@@ -0,0 +1,116 @@
+package com.project.ecommerceapp.service.product;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductExportServiceTests {
+    // more than two fetches, so the persistence context is cleared twice while the cursor is open
+    private static final int ROWS = ProductRepository.STREAM_FETCH_SIZE * 2 + 1;
+    private static final String BRAND = "ExportBrand";
+
+    @Autowired
+    private ProductExportService productExportService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Long, Product> seeded = new TreeMap<>();
+
+    @BeforeAll
+    void seed() {
+        Category category = categoryRepository.save(new Category("export-category"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            String description = i == 0 ? "comma, \"quote\"\nand a new line" : "row " + i;
+            products.add(new Product("export-" + i, BRAND, new BigDecimal(i + ".25"), i, description, category));
+        }
+        productRepository.saveAll(products).forEach(product -> seeded.put(product.getId(), product));
+    }
+
+    @Test
+    void ndjsonWritesEveryRowOnceAndFlushesPerFetch() throws IOException {
+        FlushCountingStream out = new FlushCountingStream();
+
+        productExportService.exportNdjson(out);
+
+        Map<Long, JsonNode> exported = new TreeMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            if (BRAND.equals(row.path("brand").asText())) {
+                assertThat(exported.put(row.path("id").asLong(), row)).isNull();
+            }
+        }
+        assertThat(exported.keySet()).containsExactlyElementsOf(seeded.keySet());
+        exported.forEach((id, row) -> {
+            Product product = seeded.get(id);
+            assertThat(row.path("name").asText()).isEqualTo(product.getName());
+            assertThat(row.path("price").decimalValue()).isEqualByComparingTo(product.getPrice());
+            assertThat(row.path("inventory").asInt()).isEqualTo(product.getAvailable());
+            assertThat(row.path("description").asText()).isEqualTo(product.getDescription());
+            assertThat(row.path("category").asText()).isEqualTo("export-category");
+        });
+        assertThat(out.flushes).isGreaterThanOrEqualTo(ROWS / ProductRepository.STREAM_FETCH_SIZE + 1);
+    }
+
+    @Test
+    void csvWritesEveryRowOnceAndFlushesPerFetch() throws IOException {
+        FlushCountingStream out = new FlushCountingStream();
+
+        productExportService.exportCsv(out);
+
+        CsvRowReader reader = new CsvRowReader(new StringReader(out.toString(StandardCharsets.UTF_8)));
+        assertThat(reader.next()).containsExactly("id", "name", "brand", "price", "inventory", "description", "category");
+        Map<Long, List<String>> exported = new TreeMap<>();
+        for (List<String> row = reader.next(); row != null; row = reader.next()) {
+            assertThat(row).hasSize(7);
+            if (BRAND.equals(row.get(2))) {
+                assertThat(exported.put(Long.valueOf(row.get(0)), row)).isNull();
+            }
+        }
+        assertThat(exported.keySet()).containsExactlyElementsOf(seeded.keySet());
+        exported.forEach((id, row) -> {
+            Product product = seeded.get(id);
+            assertThat(row.get(1)).isEqualTo(product.getName());
+            assertThat(new BigDecimal(row.get(3))).isEqualByComparingTo(product.getPrice());
+            assertThat(Integer.parseInt(row.get(4))).isEqualTo(product.getAvailable());
+            assertThat(row.get(5)).isEqualTo(product.getDescription());
+            assertThat(row.get(6)).isEqualTo("export-category");
+        });
+        assertThat(out.flushes).isGreaterThanOrEqualTo(ROWS / ProductRepository.STREAM_FETCH_SIZE + 1);
+    }
+
+    private static class FlushCountingStream extends ByteArrayOutputStream {
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.ImportResult;
+import com.project.ecommerceapp.dto.ImportRowError;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// small chunks and error list, so a few rows cover the retry and the limit
+@SpringBootTest(properties = {
+        "product.import.chunk-size=3",
+        "product.import.max-errors=2"
+})
+class ProductImportServiceTests {
+    private static final String HEADER = "name,brand,price,inventory,description,category\n";
+    // longer than the description column, only the insert fails on it
+    private static final String TOO_LONG = "x".repeat(300);
+
+    @Autowired
+    private ProductImportService productImportService;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void csvRowsWithABadPriceOrNoCategoryAreReportedAndTheRestImported() throws IOException {
+        ImportResult result = productImportService.importCsv(stream(HEADER
+                + "a,ImportCsvBrand,1.50,1,,import-csv\n"
+                + "b,ImportCsvBrand,abc,1,,import-csv\n"
+                + "c,ImportCsvBrand,2.00,1,,\n"
+                + "d,ImportCsvBrand,-1,1,,import-csv\n"
+                + "e,ImportCsvBrand,3.00,1,,import-csv\n"));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        // only the first max-errors rows are listed, all of them are counted
+        assertThat(result.getErrors()).extracting(ImportRowError::getRow).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("category is required");
+        assertThat(productRepository.findByBrand("ImportCsvBrand")).extracting(Product::getName)
+                .containsExactlyInAnyOrder("a", "e");
+    }
+
+    @Test
+    void jsonElementThatDoesNotMapIsRejectedAndTheRunContinues() throws IOException {
+        ImportResult result = productImportService.importJson(stream("["
+                + "{\"name\":\"a\",\"brand\":\"ImportJsonBrand\",\"price\":1,\"category\":{\"name\":\"import-json\"}},"
+                + "{\"name\":\"b\",\"brand\":\"ImportJsonBrand\",\"price\":\"abc\",\"category\":{\"name\":\"import-json\"}},"
+                + "{\"name\":\"c\",\"brand\":\"ImportJsonBrand\",\"price\":2},"
+                + "{\"name\":\"d\",\"brand\":\"ImportJsonBrand\",\"price\":3,\"category\":{\"name\":\"import-json\"}}"
+                + "]"));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportRowError::getRow).containsExactly(2L, 3L);
+        assertThat(productRepository.findByBrand("ImportJsonBrand")).extracting(Product::getName)
+                .containsExactlyInAnyOrder("a", "d");
+    }
+
+    @Test
+    void malformedJsonEndsTheRunAndKeepsTheRowsBeforeIt() throws IOException {
+        ImportResult result = productImportService.importJson(stream("["
+                + "{\"name\":\"a\",\"brand\":\"ImportBrokenBrand\",\"price\":1,\"category\":{\"name\":\"import-json\"}},"
+                + "{\"name\": ,"
+                + "{\"name\":\"c\",\"brand\":\"ImportBrokenBrand\",\"price\":1,\"category\":{\"name\":\"import-json\"}}"
+                + "]"));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportRowError::getRow).containsExactly(2L);
+        assertThat(productRepository.findByBrand("ImportBrokenBrand")).extracting(Product::getName)
+                .containsExactly("a");
+    }
+
+    @Test
+    void chunkFailingOnInsertIsRetriedRowByRow() throws IOException {
+        ImportResult result = productImportService.importCsv(stream(HEADER
+                + "a,ImportRetryBrand,1,1,,import-retry\n"
+                + "b,ImportRetryBrand,1,1," + TOO_LONG + ",import-retry\n"
+                + "c,ImportRetryBrand,1,1,,import-retry\n"
+                + "d,ImportRetryBrand,1,1,,import-retry\n"
+                + "e,ImportRetryBrand,1,1,,import-retry\n"));
+
+        // the first chunk (a, b, c) rolls back whole, then a and c go in on their own; d and e are the next chunk
+        assertThat(result.getImported()).isEqualTo(4);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportRowError::getRow).containsExactly(2L);
+        assertThat(productRepository.findByBrand("ImportRetryBrand")).extracting(Product::getName)
+                .containsExactlyInAnyOrder("a", "c", "d", "e");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.project.ecommerceapp.service.product;
+
+import com.project.ecommerceapp.dto.CatalogStats;
+import com.project.ecommerceapp.dto.ProductStats;
+import com.project.ecommerceapp.exceptions.ResourceException;
+import com.project.ecommerceapp.model.Category;
+import com.project.ecommerceapp.model.Product;
+import com.project.ecommerceapp.repository.CategoryRepository;
+import com.project.ecommerceapp.repository.ProductRepository;
+import com.project.ecommerceapp.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductStatsServiceTests {
+    @Autowired
+    private ProductStatsService productStatsService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void summaryRollsUpBrandAndCategoryPairs() {
+        Category shoes = categoryRepository.save(new Category("stats-shoes"));
+        Category shirts = categoryRepository.save(new Category("stats-shirts"));
+        productRepository.saveAll(List.of(
+                new Product("a", "StatsBrand", new BigDecimal("10.00"), 3, "", shoes),
+                new Product("b", "StatsBrand", new BigDecimal("25.50"), 2, "", shoes),
+                new Product("c", "StatsBrand", new BigDecimal("4.00"), 0, "", shirts),
+                new Product("d", "OtherStatsBrand", new BigDecimal("7.00"), 1, "", shirts)));
+
+        CatalogStats stats = productStatsService.refresh();
+
+        ProductStats pair = stats.getBrandCategories().get("StatsBrand").get("stats-shoes");
+        assertThat(pair.getCount()).isEqualTo(2);
+        assertThat(pair.getInventory()).isEqualTo(5);
+        assertThat(pair.getInventoryValue()).isEqualByComparingTo("81.00");
+        ProductStats brand = stats.getBrands().get("StatsBrand");
+        assertThat(brand.getCount()).isEqualTo(3);
+        assertThat(brand.getMinPrice()).isEqualByComparingTo("4.00");
+        assertThat(brand.getMaxPrice()).isEqualByComparingTo("25.50");
+        ProductStats category = stats.getCategories().get("stats-shirts");
+        assertThat(category.getCount()).isEqualTo(2);
+        assertThat(category.getInventoryValue()).isEqualByComparingTo("7.00");
+        assertThat(stats.getTotal().getCount()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void concurrentFirstReadersShareOneScan() throws Exception {
+        ProductStatsService fresh = new ProductStatsServiceImpl(productRepository, transactionManager, Duration.ofMinutes(1));
+        StatementCounter.reset();
+
+        try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CatalogStats>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(readers.submit(() -> fresh.getStats()));
+            }
+            for (Future<CatalogStats> result : results) {
+                assertThat(result.get()).isSameAs(results.get(0).get());
+            }
+        }
+        assertThat(StatementCounter.count()).isEqualTo(1);
+    }
+
+    @Test
+    void readAfterAQuietPeriodRebuildsTheSummary() throws Exception {
+        ProductStatsService quiet = new ProductStatsServiceImpl(productRepository, transactionManager, Duration.ofMillis(50));
+        Category category = categoryRepository.save(new Category("stats-quiet"));
+        productRepository.save(new Product("q1", "QuietStatsBrand", BigDecimal.ONE, 1, "", category));
+        assertThat(quiet.getStats("QuietStatsBrand", null).getCount()).isEqualTo(1);
+
+        productRepository.save(new Product("q2", "QuietStatsBrand", BigDecimal.ONE, 1, "", category));
+        // nobody refreshed it in between, as after hours without readers
+        Thread.sleep(100);
+
+        assertThat(quiet.getStats("QuietStatsBrand", null).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void readsAreServedFromTheSummary() {
+        productStatsService.getStats();
+
+        StatementCounter.reset();
+        productStatsService.getStats();
+        assertThatThrownBy(() -> productStatsService.getStats("NoSuchStatsBrand", null))
+                .isInstanceOf(ResourceException.class);
+        assertThat(StatementCounter.count()).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.ecommerceapp.service.search;
+
+import com.project.ecommerceapp.dto.ProductSearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put(1L, "Trail shoes", "Acme", "light running shoes", BigDecimal.TEN);
+        index.put(2L, "Running shoes", "Acme", "road", BigDecimal.TEN);
+        index.put(3L, "Desk lamp", "Lumo", "warm light", BigDecimal.ONE);
+
+        List<ProductSearchHit> hits = index.search("running", 10);
+
+        assertThat(hits).extracting(ProductSearchHit::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void updatesAndRemovalsReplacePreviousVersion() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put(1L, "Red kettle", "Acme", null, BigDecimal.TEN);
+        index.put(1L, "Blue kettle", "Acme", null, BigDecimal.TEN);
+        index.put(2L, "Red mug", "Acme", null, BigDecimal.ONE);
+
+        assertThat(index.search("red", 10)).extracting(ProductSearchHit::getId).containsExactly(2L);
+
+        index.remove(2L);
+
+        assertThat(index.search("red", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionKeepsResults() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (long id = 0; id < 5000; id++) {
+            index.put(id % 100, "widget " + id, "Acme", null, BigDecimal.ONE);
+        }
+
+        assertThat(index.size()).isEqualTo(100);
+        assertThat(index.search("widget", 200)).hasSize(100);
+    }
+
+    @Test
+    void scoresOfEveryTermAddUpAcrossManyCandidates() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (long id = 0; id < 5000; id++) {
+            index.put(id, "gadget " + id, "Acme", id % 1000 == 7 ? "rare" : null, BigDecimal.ONE);
+        }
+
+        List<ProductSearchHit> hits = index.search("gadget rare", 5000);
+
+        assertThat(hits).hasSize(5000);
+        assertThat(hits.subList(0, 5)).extracting(ProductSearchHit::getId)
+                .containsExactlyInAnyOrder(7L, 1007L, 2007L, 3007L, 4007L);
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.ecommerceapp.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    Counts the SQL statements Hibernate prepares, registered through hibernate.session_factory.statement_inspector.
+*/
+public class StatementCounter implements StatementInspector {
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+    public static void reset() {
+        COUNT.set(0);
+        STATEMENTS.clear();
+    }
+
+    public static int count() {
+        return COUNT.get();
+    }
+
+    // the statements since the last reset
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.incrementAndGet();
+        STATEMENTS.add(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,12 @@
+-- the tables as created before the ids moved to sequences, with rows
+create table category (id bigint generated by default as identity primary key, name varchar(255));
+create table product (id bigint generated by default as identity primary key, name varchar(255),
+    brand varchar(255), price numeric(38, 2), inventory integer not null, description varchar(255),
+    category_id bigint references category (id));
+create table image (id bigint generated by default as identity primary key, file_name varchar(255),
+    file_type varchar(255), image blob, download_url varchar(255), product_id bigint references product (id));
+
+insert into category (id, name) values (1, 'legacy-shoes'), (7, 'legacy-shirts');
+insert into product (id, name, brand, price, inventory, description, category_id)
+    values (1, 'legacy-a', 'LegacyBrand', 10.00, 1, '', 1), (120, 'legacy-b', 'LegacyBrand', 5.00, 2, '', 7);
+insert into image (id, file_name, file_type, download_url, product_id) values (3, 'a.png', 'image/png', null, 120);